@@ -0,0 +1,25 @@
+@echo off
+REM Builds power-estimator.jar and an AppCDS archive (app-cds.jsa) from a training run.
+REM Requires JDK 13 or newer. Rerun after every code change or JDK upgrade.
+set CP=lib\jfreechart-1.5.4.jar;lib\jcommon-1.0.24.jar;power-estimator.jar
+
+echo Compiling CPU Power Estimator...
+javac -cp "lib/*" -d bin src/com/powerestimator/*.java src/com/powerestimator/model/*.java src/com/powerestimator/service/*.java src/com/powerestimator/ui/*.java
+if %ERRORLEVEL% NEQ 0 (
+    echo Compilation failed!
+    pause
+    exit /b 1
+)
+
+REM CDS only archives classes loaded from JAR files, not from the bin directory
+jar cf power-estimator.jar -C bin .
+
+echo Training run (headless commands + main window and chart)...
+if exist app-cds.jsa del app-cds.jsa
+java -XX:ArchiveClassesAtExit=app-cds.jsa -cp "%CP%" com.powerestimator.PowerEstimatorApp train --ui
+if exist app-cds.jsa (
+    echo Archive created: app-cds.jsa. Start the application with run-fast.bat
+) else (
+    echo Archive was not created!
+)
+pause
\ No newline at end of file
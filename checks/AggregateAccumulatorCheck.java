@@ -0,0 +1,80 @@
+import com.powerestimator.model.AggregateSnapshot;
+import com.powerestimator.model.CPUProfile;
+import com.powerestimator.model.InstructionCategory;
+import com.powerestimator.service.AggregateAccumulator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consistency check for AggregateAccumulator under contention.
+ *
+ * Eight producer threads record instructions while a reader polls snapshots. Every
+ * snapshot must contain whole records (category counts add up to the instruction
+ * count, energy matches the counts), and the final totals must match what was recorded.
+ * Exits with 1 on failure.
+ */
+public class AggregateAccumulatorCheck {
+    private static final int THREADS = 8;
+    
+    public static void main(String[] args) throws InterruptedException {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        CPUProfile profile = CPUProfile.createBasicProfile();
+        AggregateAccumulator accumulator = new AggregateAccumulator(profile);
+        InstructionCategory[] categories = InstructionCategory.values();
+        
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong snapshots = new AtomicLong();
+        AtomicLong inconsistent = new AtomicLong();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                if (!isConsistent(accumulator.snapshot(), profile)) {
+                    inconsistent.incrementAndGet();
+                }
+                snapshots.incrementAndGet();
+            }
+        });
+        
+        Thread[] producers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int offset = t;
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    accumulator.record(categories[(i + offset) % categories.length]);
+                }
+            });
+        }
+        
+        long start = System.nanoTime();
+        reader.start();
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        done.set(true);
+        reader.join();
+        
+        AggregateSnapshot total = accumulator.snapshot();
+        long expected = (long) THREADS * perThread;
+        System.out.printf("AggregateAccumulatorCheck: %d records in %d ms, %d snapshots, %d inconsistent\n",
+            total.getInstructionCount(), elapsed / 1_000_000, snapshots.get(), inconsistent.get());
+        if (total.getInstructionCount() != expected || inconsistent.get() > 0 || !isConsistent(total, profile)) {
+            System.err.printf("FAILED: expected %d records\n", expected);
+            System.exit(1);
+        }
+    }
+    
+    private static boolean isConsistent(AggregateSnapshot snapshot, CPUProfile profile) {
+        long count = 0;
+        double energy = 0.0;
+        for (InstructionCategory category : InstructionCategory.values()) {
+            long categoryCount = snapshot.getCategoryCount(category);
+            count += categoryCount;
+            energy += categoryCount * profile.getPowerForCategory(category) * profile.getTimeForCategory(category);
+        }
+        return count == snapshot.getInstructionCount()
+            && Math.abs(energy - snapshot.getTotalEnergy()) <= 1e-9 * Math.max(1.0, energy);
+    }
+}
\ No newline at end of file
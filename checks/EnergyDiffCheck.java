@@ -0,0 +1,90 @@
+import com.powerestimator.model.CPUProfile;
+import com.powerestimator.model.DiffHunk;
+import com.powerestimator.model.EnergyDiffResult;
+import com.powerestimator.model.ParsedInstruction;
+import com.powerestimator.service.EnergyDiffService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Regression check for the line alignment in EnergyDiffService.
+ *
+ * Diffs random pairs of revisions and checks that applying the hunks to the old
+ * revision gives the new one, and that the number of unchanged lines equals the
+ * longest common subsequence computed by plain dynamic programming.
+ * Exits with 1 on the first failure.
+ */
+public class EnergyDiffCheck {
+    private static final String[] LINES = {
+        "x = a + 1;", "y = b * 2;", "arr[i] = x;", "if (x > y) z = 1;", "z = x & y;", "return z;"
+    };
+    
+    public static void main(String[] args) {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        Random random = new Random(42);
+        EnergyDiffService diffService = new EnergyDiffService();
+        CPUProfile profile = CPUProfile.createBasicProfile();
+        
+        for (int c = 0; c < cases; c++) {
+            int alphabet = 1 + random.nextInt(LINES.length);
+            List<String> oldLines = randomLines(random, random.nextInt(c % 3 == 0 ? 5 : 60), alphabet, null);
+            List<String> newLines = randomLines(random, random.nextInt(c % 5 == 0 ? 5 : 60), alphabet,
+                    random.nextBoolean() ? oldLines : null);
+            
+            EnergyDiffResult result = diffService.diff(String.join("\n", oldLines), String.join("\n", newLines), profile);
+            
+            // Every line is an instruction, so line numbers are list positions + 1
+            List<String> patched = new ArrayList<>();
+            int next = 1;
+            int unchanged = oldLines.size();
+            for (DiffHunk hunk : result.getHunks()) {
+                while (next < hunk.getOldStartLine()) {
+                    patched.add(oldLines.get(next++ - 1));
+                }
+                for (ParsedInstruction added : hunk.getAdded()) {
+                    patched.add(added.getRawLine());
+                }
+                next += hunk.getRemoved().size();
+                unchanged -= hunk.getRemoved().size();
+            }
+            while (next <= oldLines.size()) {
+                patched.add(oldLines.get(next++ - 1));
+            }
+            
+            int lcs = longestCommonSubsequence(oldLines, newLines);
+            if (!patched.equals(newLines) || unchanged != lcs || !result.isAlignmentComplete()) {
+                System.err.printf("FAILED case %d: %d unchanged lines, expected %d, patch %s\n  old: %s\n  new: %s\n",
+                    c, unchanged, lcs, patched.equals(newLines) ? "ok" : "wrong", oldLines, newLines);
+                System.exit(1);
+            }
+        }
+        System.out.printf("EnergyDiffCheck: %d cases OK\n", cases);
+    }
+    
+    /**
+     * Random lines; if base is given, most lines are copied from it to get realistic edits
+     */
+    private static List<String> randomLines(Random random, int count, int alphabet, List<String> base) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (base != null && i < base.size() && random.nextInt(10) > 1) {
+                lines.add(base.get(i));
+            } else {
+                lines.add(LINES[random.nextInt(alphabet)]);
+            }
+        }
+        return lines;
+    }
+    
+    private static int longestCommonSubsequence(List<String> a, List<String> b) {
+        int[][] lengths = new int[a.size() + 1][b.size() + 1];
+        for (int i = a.size() - 1; i >= 0; i--) {
+            for (int j = b.size() - 1; j >= 0; j--) {
+                lengths[i][j] = a.get(i).equals(b.get(j)) ?
+                    lengths[i + 1][j + 1] + 1 : Math.max(lengths[i + 1][j], lengths[i][j + 1]);
+            }
+        }
+        return lengths[0][0];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+@echo off
+REM Starts the application from power-estimator.jar using the AppCDS archive built by build-cds.bat.
+REM Arguments are passed through, so headless commands work too, e.g. run-fast.bat diff Old.java New.java
+set CP=lib\jfreechart-1.5.4.jar;lib\jcommon-1.0.24.jar;power-estimator.jar
+if not exist app-cds.jsa (
+    echo app-cds.jsa not found, run build-cds.bat first.
+    exit /b 1
+)
+java -XX:SharedArchiveFile=app-cds.jsa -Xshare:auto -cp "%CP%" com.powerestimator.PowerEstimatorApp %*
\ No newline at end of file
@@ -0,0 +1,439 @@
+package com.powerestimator;
+
+import com.powerestimator.model.AggregateSnapshot;
+import com.powerestimator.model.CPUProfile;
+import com.powerestimator.model.CoefficientRange;
+import com.powerestimator.model.EnergyDiffResult;
+import com.powerestimator.model.InstructionCategory;
+import com.powerestimator.model.ParsedInstruction;
+import com.powerestimator.model.RunSummary;
+import com.powerestimator.service.AggregateAccumulator;
+import com.powerestimator.service.CodeAnalysisService;
+import com.powerestimator.service.DynamicPowerSimulator;
+import com.powerestimator.service.EnergyDiffService;
+import com.powerestimator.service.ParameterSweepService;
+import com.powerestimator.service.PowerCalculationService;
+import com.powerestimator.service.ResultStore;
+import com.powerestimator.ui.MainWindow;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+import java.awt.GraphicsEnvironment;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command line entry point for running analyses without the Swing UI (e.g. in CI pipelines)
+ */
+public class HeadlessRunner {
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_THRESHOLD_EXCEEDED = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final String DEFAULT_STORE = "PowerResults.bin";
+    public static final String DEFAULT_CLASSIFICATION_CACHE = "PowerClassification.cache";
+    private static final String TRAINING_SAMPLE = "examples/AlgorithmExamples.java";
+    
+    /**
+     * Runs the command given on the command line and returns the process exit code
+     */
+    public static int run(String[] args) {
+        if (args.length == 0) {
+            printUsage();
+            return EXIT_USAGE;
+        }
+        
+        try {
+            int exitCode;
+            switch (args[0]) {
+                case "diff":
+                    exitCode = runDiff(args);
+                    break;
+                case "record":
+                    exitCode = runRecord(args);
+                    break;
+                case "top":
+                    exitCode = runTop(args);
+                    break;
+                case "trend":
+                    exitCode = runTrend(args);
+                    break;
+                case "train":
+                    exitCode = runTraining(args);
+                    break;
+                default:
+                    printUsage();
+                    return EXIT_USAGE;
+            }
+            StartupTimer.markFirstResult();
+            return exitCode;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            return EXIT_USAGE;
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+    }
+    
+    /**
+     * diff OLD NEW [--profile NAME] [--threshold PERCENT] [--report FILE] [--cache FILE]
+     */
+    private static int runDiff(String[] args) throws IOException {
+        String oldFile = null;
+        String newFile = null;
+        CPUProfile profile = CPUProfile.createBasicProfile();
+        double threshold = Double.POSITIVE_INFINITY;
+        String reportFile = null;
+        String cacheFile = DEFAULT_CLASSIFICATION_CACHE;
+        
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--profile":
+                    profile = CPUProfile.forName(requireValue(args, ++i));
+                    break;
+                case "--cache":
+                    cacheFile = requireValue(args, ++i);
+                    break;
+                case "--threshold":
+                    threshold = parseNumber(requireValue(args, ++i));
+                    break;
+                case "--report":
+                    reportFile = requireValue(args, ++i);
+                    break;
+                default:
+                    if (oldFile == null) {
+                        oldFile = args[i];
+                    } else if (newFile == null) {
+                        newFile = args[i];
+                    } else {
+                        throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                    }
+            }
+        }
+        if (newFile == null) {
+            throw new IllegalArgumentException("diff needs an old and a new file");
+        }
+        
+        // Lines classified by earlier runs (e.g. the previous commit in CI) are not classified again.
+        // The cache only saves time, so problems with it never fail the diff.
+        EnergyDiffService diffService = new EnergyDiffService();
+        try {
+            diffService.loadClassificationCache(cacheFile);
+        } catch (IOException e) {
+            System.err.println("Warning: could not read classification cache " + cacheFile + ": " + e.getMessage());
+        }
+        EnergyDiffResult result = diffService.diff(readFile(oldFile), readFile(newFile), profile);
+        
+        PrintWriter out = new PrintWriter(System.out);
+        diffService.writeReport(result, out);
+        out.flush();
+        if (reportFile != null) {
+            diffService.saveReport(result, reportFile);
+        }
+        
+        int exitCode = EXIT_OK;
+        if (result.exceedsThreshold(threshold)) {
+            System.out.printf("FAIL: energy grew by %.2f%% (threshold %.2f%%)\n",
+                result.getEnergyDeltaPercent(), threshold);
+            exitCode = EXIT_THRESHOLD_EXCEEDED;
+        }
+        
+        if (result.getClassifiedLines() > 0) {
+            try {
+                diffService.saveClassificationCache(cacheFile);
+            } catch (IOException e) {
+                System.err.println("Warning: could not save classification cache " + cacheFile + ": " + e.getMessage());
+            }
+        }
+        return exitCode;
+    }
+    
+    /**
+     * record FILE... [--run-id ID] [--profile NAME|all] [--store FILE] [--progress]
+     */
+    private static int runRecord(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        String runId = String.valueOf(System.currentTimeMillis());
+        String profileName = "all";
+        String storeFile = DEFAULT_STORE;
+        boolean progress = false;
+        
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--run-id":
+                    runId = requireValue(args, ++i);
+                    break;
+                case "--progress":
+                    progress = true;
+                    break;
+                case "--profile":
+                    profileName = requireValue(args, ++i);
+                    break;
+                case "--store":
+                    storeFile = requireValue(args, ++i);
+                    break;
+                default:
+                    files.add(args[i]);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("record needs at least one file");
+        }
+        
+        List<CPUProfile> profiles = new ArrayList<>();
+        if (profileName.equalsIgnoreCase("all")) {
+            profiles.add(CPUProfile.createBasicProfile());
+            profiles.add(CPUProfile.createHighPerformanceProfile());
+            profiles.add(CPUProfile.createLowPowerProfile());
+        } else {
+            profiles.add(CPUProfile.forName(profileName));
+        }
+        
+        // Running totals per profile, updated by the analysis workers
+        AggregateAccumulator[] accumulators = new AggregateAccumulator[profiles.size()];
+        for (int p = 0; p < accumulators.length; p++) {
+            accumulators[p] = new AggregateAccumulator(profiles.get(p));
+        }
+        
+        ScheduledExecutorService reporter = null;
+        if (progress) {
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "progress-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(() -> printTotals(profiles, accumulators, System.err),
+                1, 1, TimeUnit.SECONDS);
+        }
+        
+        CodeAnalysisService analysisService = new CodeAnalysisService();
+        PowerCalculationService powerService = new PowerCalculationService();
+        try (ResultStore store = new ResultStore(storeFile, powerService)) {
+            String run = runId;
+            files.parallelStream().forEach(file -> {
+                try {
+                    List<ParsedInstruction> instructions = analysisService.analyzeCode(readFile(file), accumulators);
+                    for (CPUProfile profile : profiles) {
+                        powerService.calculatePowerForInstructions(instructions, profile);
+                        store.append(run, file, profile, instructions);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            System.out.printf("Recorded %d files x %d profiles as run %s in %s (%d summaries total)\n",
+                files.size(), profiles.size(), runId, storeFile, store.size());
+            printTotals(profiles, accumulators, System.out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+        }
+        return EXIT_OK;
+    }
+    
+    /**
+     * train [--ui]
+     *
+     * Exercises every headless command path (and with --ui the main window and a
+     * chart) so that a run with -XX:ArchiveClassesAtExit records the classes a
+     * real session needs in the class-data-sharing archive.
+     */
+    private static int runTraining(String[] args) throws IOException {
+        boolean ui = Arrays.asList(args).contains("--ui");
+        String code = new File(TRAINING_SAMPLE).exists() ?
+            readFile(TRAINING_SAMPLE) : "int x = 5 + 3;\nif (x > 0) {\n    int[] arr = new int[10];\n}";
+        String changedCode = code + "\nint[] extra = new int[4];\nextra[0] = extra[1] + 1;";
+        
+        // Static and dynamic models, sweep and diff
+        CPUProfile profile = CPUProfile.createBasicProfile();
+        CodeAnalysisService analysisService = new CodeAnalysisService();
+        PowerCalculationService powerService = new PowerCalculationService();
+        AggregateAccumulator accumulator = new AggregateAccumulator(profile);
+        List<ParsedInstruction> instructions = analysisService.analyzeCode(code, accumulator);
+        powerService.calculatePowerForInstructions(instructions, profile);
+        accumulator.snapshot();
+        new DynamicPowerSimulator().simulate(instructions, profile);
+        
+        List<CoefficientRange> ranges = new ArrayList<>();
+        ranges.add(new CoefficientRange(InstructionCategory.MEMORY, CoefficientRange.Coefficient.POWER, 3.0, 6.0, 4));
+        ranges.add(new CoefficientRange(InstructionCategory.MEMORY, CoefficientRange.Coefficient.TIME, 2.0, 5.0, 4));
+        ParameterSweepService sweepService = new ParameterSweepService(powerService);
+        sweepService.sweep(instructions, profile, ranges);
+        
+        EnergyDiffService diffService = new EnergyDiffService();
+        diffService.writeReport(diffService.diff(code, changedCode, profile), new PrintWriter(new StringWriter()));
+        
+        // Result store and report writing, in throwaway files
+        File storeFile = File.createTempFile("powerestimator-train", ".bin");
+        File reportFile = File.createTempFile("powerestimator-train", ".txt");
+        storeFile.delete();
+        try (ResultStore store = new ResultStore(storeFile.getPath(), powerService)) {
+            store.append("train", TRAINING_SAMPLE, profile, instructions);
+            store.topByEnergy(10, null, null);
+            store.trend(TRAINING_SAMPLE, profile.getName());
+        } finally {
+            storeFile.delete();
+        }
+        powerService.saveReport(instructions, profile, reportFile.getPath());
+        reportFile.delete();
+        
+        if (ui) {
+            if (GraphicsEnvironment.isHeadless()) {
+                System.err.println("No display available, skipping UI training");
+            } else {
+                trainUserInterface(code);
+            }
+        }
+        
+        System.out.println("Training run complete");
+        return EXIT_OK;
+    }
+    
+    private static void trainUserInterface(String code) {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            // Same fallback as the application
+        }
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                MainWindow window = new MainWindow();
+                window.setVisible(true);
+                window.warmUp(code);
+                window.dispose();
+            });
+        } catch (InterruptedException | InvocationTargetException e) {
+            System.err.println("UI training failed: " + e);
+        }
+    }
+    
+    private static void printTotals(List<CPUProfile> profiles, AggregateAccumulator[] accumulators,
+                                    PrintStream out) {
+        for (int p = 0; p < accumulators.length; p++) {
+            AggregateSnapshot snapshot = accumulators[p].snapshot();
+            out.printf("  [%s] %s\n", profiles.get(p).getName(), snapshot);
+        }
+    }
+    
+    /**
+     * top [N] [--profile NAME] [--run-id ID] [--store FILE]
+     */
+    private static int runTop(String[] args) throws IOException {
+        int limit = 50;
+        String profileName = null;
+        String runId = null;
+        String storeFile = DEFAULT_STORE;
+        
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--profile":
+                    profileName = CPUProfile.forName(requireValue(args, ++i)).getName();
+                    break;
+                case "--run-id":
+                    runId = requireValue(args, ++i);
+                    break;
+                case "--store":
+                    storeFile = requireValue(args, ++i);
+                    break;
+                default:
+                    limit = (int) parseNumber(args[i]);
+            }
+        }
+        
+        try (ResultStore store = new ResultStore(storeFile, true)) {
+            List<RunSummary> top = store.topByEnergy(limit, profileName, runId);
+            System.out.printf("Top %d files by energy%s:\n", top.size(), runId != null ? " in run " + runId : "");
+            for (int i = 0; i < top.size(); i++) {
+                System.out.printf("%d. %s\n", i + 1, top.get(i));
+            }
+        }
+        return EXIT_OK;
+    }
+    
+    /**
+     * trend PATH [--profile NAME] [--store FILE]
+     */
+    private static int runTrend(String[] args) throws IOException {
+        String filePath = null;
+        String profileName = null;
+        String storeFile = DEFAULT_STORE;
+        
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--profile":
+                    profileName = CPUProfile.forName(requireValue(args, ++i)).getName();
+                    break;
+                case "--store":
+                    storeFile = requireValue(args, ++i);
+                    break;
+                default:
+                    filePath = args[i];
+            }
+        }
+        if (filePath == null) {
+            throw new IllegalArgumentException("trend needs a file path");
+        }
+        
+        try (ResultStore store = new ResultStore(storeFile, true)) {
+            List<RunSummary> history = store.trend(filePath, profileName);
+            System.out.printf("Energy trend for %s (%d runs):\n", filePath, history.size());
+            for (RunSummary summary : history) {
+                System.out.printf("  %s [%s] Energy=%.2f pJ, Time=%.2f ns, Instructions=%d\n",
+                    summary.getRunId(), summary.getProfileName(), summary.getTotalEnergy(),
+                    summary.getTotalTime(), summary.getInstructionCount());
+            }
+        }
+        return EXIT_OK;
+    }
+    
+    private static String readFile(String path) throws IOException {
+        return new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+    }
+    
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " needs a value");
+        }
+        return args[index];
+    }
+    
+    private static double parseNumber(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+    
+    private static void printUsage() {
+        System.err.println("Usage:");
+        System.err.println("  diff OLD NEW [--profile basic|high|low] [--threshold PERCENT] [--report FILE] [--cache FILE]");
+        System.err.println("      Energy delta between two revisions; exits with 1 if energy grew by more than PERCENT");
+        System.err.println("      Line classifications are kept in the cache file (default " + DEFAULT_CLASSIFICATION_CACHE + ")");
+        System.err.println("  record FILE... [--run-id ID] [--profile basic|high|low|all] [--store FILE] [--progress]");
+        System.err.println("      Analyze files and append their summaries to the result store (default " + DEFAULT_STORE + ")");
+        System.err.println("  top [N] [--profile basic|high|low] [--run-id ID] [--store FILE]");
+        System.err.println("      N most energy-hungry files (latest run of each file unless --run-id is given)");
+        System.err.println("  trend PATH [--profile basic|high|low] [--store FILE]");
+        System.err.println("      Stored energy history of one file");
+        System.err.println("  train [--ui]");
+        System.err.println("      Representative workload for building a class-data-sharing archive (see build-cds.bat)");
+    }
+}
\ No newline at end of file
@@ -11,6 +11,13 @@ import javax.swing.JOptionPane;
 public class PowerEstimatorApp {
     
     public static void main(String[] args) {
+        StartupTimer.start();
+        
+        // Command line arguments select a headless command (no UI, no JFreeChart needed)
+        if (args.length > 0) {
+            System.exit(HeadlessRunner.run(args));
+        }
+        
         // Check if JFreeChart is available
         if (!checkJFreeChartAvailability()) {
             showJFreeChartMissingDialog();
@@ -28,19 +35,17 @@ public class PowerEstimatorApp {
         // Launch the application on the Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             new MainWindow().setVisible(true);
+            StartupTimer.mark("window shown");
         });
     }
     
     /**
-     * Checks if JFreeChart library is available
+     * Checks if JFreeChart library is available. Only looks the class file up, so
+     * JFreeChart is not loaded until a chart window is first opened.
      */
     private static boolean checkJFreeChartAvailability() {
-        try {
-            Class.forName("org.jfree.chart.ChartFactory");
-            return true;
-        } catch (ClassNotFoundException e) {
-            return false;
-        }
+        return PowerEstimatorApp.class.getClassLoader()
+                .getResource("org/jfree/chart/ChartFactory.class") != null;
     }
     
     /**
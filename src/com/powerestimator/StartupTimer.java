@@ -0,0 +1,51 @@
+package com.powerestimator;
+
+/**
+ * Records how long startup phases take (main entry, window shown, first result).
+ *
+ * Enabled with -Dpowerestimator.startupTrace=true; timings are printed to stderr.
+ * When disabled, marks cost a single boolean check.
+ */
+public final class StartupTimer {
+    private static final boolean ENABLED = Boolean.getBoolean("powerestimator.startupTrace");
+    private static long mainStart = System.nanoTime();
+    private static boolean firstResultMarked;
+    
+    private StartupTimer() {
+    }
+    
+    /**
+     * Marks the start of main(); later phases are measured from here
+     */
+    public static void start() {
+        mainStart = System.nanoTime();
+        if (ENABLED) {
+            System.err.printf("[startup] main entered, JVM uptime %d ms\n", jvmUptimeMillis());
+        }
+    }
+    
+    /**
+     * Prints the time from main() to the given phase
+     */
+    public static void mark(String phase) {
+        if (ENABLED) {
+            System.err.printf("[startup] %s: %.1f ms after main, JVM uptime %d ms\n",
+                phase, (System.nanoTime() - mainStart) / 1_000_000.0, jvmUptimeMillis());
+        }
+    }
+    
+    /**
+     * Marks the first analysis result; only the first call is printed
+     */
+    public static synchronized void markFirstResult() {
+        if (!firstResultMarked) {
+            firstResultMarked = true;
+            mark("first result");
+        }
+    }
+    
+    private static long jvmUptimeMillis() {
+        // Only loaded when tracing, so the management classes do not slow down normal startup
+        return java.lang.management.ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.powerestimator.model;
+
+/**
+ * Immutable running totals (instructions, power, time, energy and category mix)
+ */
+public class AggregateSnapshot {
+    private final long instructionCount;
+    private final double totalPower;
+    private final double totalTime;
+    private final double totalEnergy;
+    private final long[] categoryCounts;
+    
+    public AggregateSnapshot(long instructionCount, double totalPower, double totalTime, double totalEnergy,
+                             long[] categoryCounts) {
+        this.instructionCount = instructionCount;
+        this.totalPower = totalPower;
+        this.totalTime = totalTime;
+        this.totalEnergy = totalEnergy;
+        this.categoryCounts = categoryCounts.clone();
+    }
+    
+    // Getters
+    public long getInstructionCount() { return instructionCount; }
+    public double getTotalPower() { return totalPower; }
+    public double getTotalTime() { return totalTime; }
+    public double getTotalEnergy() { return totalEnergy; }
+    
+    public long getCategoryCount(InstructionCategory category) {
+        return categoryCounts[category.ordinal()];
+    }
+    
+    public double getAveragePower() {
+        return instructionCount > 0 ? totalPower / instructionCount : 0.0;
+    }
+    
+    /**
+     * Share of instructions in the given category (0..1)
+     */
+    public double getCategoryShare(InstructionCategory category) {
+        return instructionCount > 0 ? (double) getCategoryCount(category) / instructionCount : 0.0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d instructions, Power=%.2f mW, Time=%.2f ns, Energy=%.2f pJ",
+            instructionCount, totalPower, totalTime, totalEnergy);
+    }
+}
\ No newline at end of file
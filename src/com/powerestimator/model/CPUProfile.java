@@ -10,11 +10,13 @@ public class CPUProfile {
     private final String name;
     private final Map<InstructionCategory, Double> powerMap;
     private final Map<InstructionCategory, Double> timeMap;
+    private SimulationParameters simulationParameters;
     
     public CPUProfile(String name) {
         this.name = name;
         this.powerMap = new HashMap<>();
         this.timeMap = new HashMap<>();
+        this.simulationParameters = new SimulationParameters();
         initializeDefaultTimes();
     }
     
@@ -31,6 +33,10 @@ public class CPUProfile {
         powerMap.put(category, power);
     }
     
+    public void setTimeForCategory(InstructionCategory category, double time) {
+        timeMap.put(category, time);
+    }
+    
     public double getPowerForCategory(InstructionCategory category) {
         return powerMap.getOrDefault(category, 2.0);
     }
@@ -39,6 +45,14 @@ public class CPUProfile {
         return timeMap.getOrDefault(category, 2.0);
     }
     
+    public SimulationParameters getSimulationParameters() {
+        return simulationParameters;
+    }
+    
+    public void setSimulationParameters(SimulationParameters simulationParameters) {
+        this.simulationParameters = simulationParameters;
+    }
+    
     public String getName() {
         return name;
     }
@@ -68,6 +82,17 @@ public class CPUProfile {
         profile.setPowerForCategory(InstructionCategory.CONTROL, 2.5);
         profile.setPowerForCategory(InstructionCategory.BRANCH, 4.2);
         profile.setPowerForCategory(InstructionCategory.UNKNOWN, 3.5);
+        
+        // Deep pipeline, large caches, wide frequency range
+        SimulationParameters params = profile.getSimulationParameters();
+        params.setPipelineDepth(14);
+        params.setCacheHitRate(0.95);
+        params.setSequentialHitRate(0.99);
+        params.setBranchMispredictRate(0.05);
+        params.setIdlePower(1.2);
+        params.setDvfsStates(new double[] {0.4, 0.6, 0.8, 1.0, 1.2},
+                             new double[] {0.75, 0.8, 0.9, 1.0, 1.1});
+        params.setInitialState(1);
         return profile;
     }
     
@@ -79,6 +104,31 @@ public class CPUProfile {
         profile.setPowerForCategory(InstructionCategory.CONTROL, 1.0);
         profile.setPowerForCategory(InstructionCategory.BRANCH, 1.8);
         profile.setPowerForCategory(InstructionCategory.UNKNOWN, 1.5);
+        
+        // Short pipeline, small caches, aggressive down-clocking
+        SimulationParameters params = profile.getSimulationParameters();
+        params.setPipelineDepth(3);
+        params.setCacheHitRate(0.85);
+        params.setSequentialHitRate(0.95);
+        params.setIdlePower(0.2);
+        params.setDvfsStates(new double[] {0.25, 0.5, 0.75},
+                             new double[] {0.7, 0.8, 0.9});
+        params.setGovernorThresholds(0.50, 0.90);
         return profile;
     }
+    
+    /**
+     * Returns the standard profile matching a name such as "basic", "high" or "Low Power"
+     */
+    public static CPUProfile forName(String name) {
+        String key = name.trim().toLowerCase();
+        if (key.equals("basic")) {
+            return createBasicProfile();
+        } else if (key.equals("high") || key.equals("high performance")) {
+            return createHighPerformanceProfile();
+        } else if (key.equals("low") || key.equals("low power")) {
+            return createLowPowerProfile();
+        }
+        throw new IllegalArgumentException("Unknown CPU profile: " + name);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.powerestimator.model;
+
+/**
+ * A range of values for one CPU profile coefficient, used by parameter sweeps
+ */
+public class CoefficientRange {
+    
+    /**
+     * Which per-category coefficient of a CPUProfile is being varied
+     */
+    public enum Coefficient {
+        POWER,  // mW per instruction
+        TIME    // ns per instruction
+    }
+    
+    private final InstructionCategory category;
+    private final Coefficient coefficient;
+    private final double min;
+    private final double max;
+    private final int steps;
+    
+    public CoefficientRange(InstructionCategory category, Coefficient coefficient,
+                            double min, double max, int steps) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("Steps must be at least 1");
+        }
+        if (!Double.isFinite(min) || !Double.isFinite(max)) {
+            throw new IllegalArgumentException("Min and max must be finite numbers");
+        }
+        if (min < 0.0) {
+            throw new IllegalArgumentException("Power and time values must not be negative");
+        }
+        if (max < min) {
+            throw new IllegalArgumentException("Max must not be less than min");
+        }
+        this.category = category;
+        this.coefficient = coefficient;
+        this.min = min;
+        this.max = max;
+        this.steps = steps;
+    }
+    
+    /**
+     * Returns the coefficient value at the given step (0 = min, steps - 1 = max)
+     */
+    public double valueAt(int step) {
+        if (steps == 1) return min;
+        return min + (max - min) * step / (steps - 1);
+    }
+    
+    /**
+     * Reads the current value of this coefficient from a profile
+     */
+    public double baseValue(CPUProfile profile) {
+        return coefficient == Coefficient.POWER ?
+            profile.getPowerForCategory(category) : profile.getTimeForCategory(category);
+    }
+    
+    // Getters
+    public InstructionCategory getCategory() { return category; }
+    public Coefficient getCoefficient() { return coefficient; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public int getSteps() { return steps; }
+    
+    @Override
+    public String toString() {
+        return String.format("%s %s [%.2f..%.2f, %d steps]", category, coefficient, min, max, steps);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.powerestimator.model;
+
+import java.util.List;
+
+/**
+ * A contiguous block of removed and added instructions between two code revisions
+ */
+public class DiffHunk {
+    private final int oldStartLine;
+    private final int newStartLine;
+    private final List<ParsedInstruction> removed;
+    private final List<ParsedInstruction> added;
+    private final double oldEnergy;
+    private final double newEnergy;
+    private final double oldTime;
+    private final double newTime;
+    
+    public DiffHunk(int oldStartLine, int newStartLine,
+                    List<ParsedInstruction> removed, List<ParsedInstruction> added,
+                    double oldEnergy, double newEnergy, double oldTime, double newTime) {
+        this.oldStartLine = oldStartLine;
+        this.newStartLine = newStartLine;
+        this.removed = removed;
+        this.added = added;
+        this.oldEnergy = oldEnergy;
+        this.newEnergy = newEnergy;
+        this.oldTime = oldTime;
+        this.newTime = newTime;
+    }
+    
+    // Getters
+    public int getOldStartLine() { return oldStartLine; }
+    public int getNewStartLine() { return newStartLine; }
+    public List<ParsedInstruction> getRemoved() { return removed; }
+    public List<ParsedInstruction> getAdded() { return added; }
+    public double getOldEnergy() { return oldEnergy; }
+    public double getNewEnergy() { return newEnergy; }
+    public double getOldTime() { return oldTime; }
+    public double getNewTime() { return newTime; }
+    
+    public double getEnergyDelta() {
+        return newEnergy - oldEnergy;
+    }
+    
+    public double getTimeDelta() {
+        return newTime - oldTime;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("@@ -%d,%d +%d,%d @@ Energy %+.2f pJ, Time %+.2f ns",
+            oldStartLine, removed.size(), newStartLine, added.size(), getEnergyDelta(), getTimeDelta());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.powerestimator.model;
+
+import java.util.List;
+
+/**
+ * Energy and time difference between two code revisions, hunk by hunk
+ */
+public class EnergyDiffResult {
+    private final CPUProfile cpuProfile;
+    private final List<DiffHunk> hunks;
+    private final int oldInstructionCount;
+    private final int newInstructionCount;
+    private final int classifiedLines;
+    private final boolean alignmentComplete;
+    private final double oldTotalEnergy;
+    private final double oldTotalTime;
+    
+    public EnergyDiffResult(CPUProfile cpuProfile, List<DiffHunk> hunks,
+                            int oldInstructionCount, int newInstructionCount, int classifiedLines,
+                            boolean alignmentComplete, double oldTotalEnergy, double oldTotalTime) {
+        this.cpuProfile = cpuProfile;
+        this.hunks = hunks;
+        this.oldInstructionCount = oldInstructionCount;
+        this.newInstructionCount = newInstructionCount;
+        this.classifiedLines = classifiedLines;
+        this.alignmentComplete = alignmentComplete;
+        this.oldTotalEnergy = oldTotalEnergy;
+        this.oldTotalTime = oldTotalTime;
+    }
+    
+    // Getters
+    public CPUProfile getCpuProfile() { return cpuProfile; }
+    public List<DiffHunk> getHunks() { return hunks; }
+    public int getOldInstructionCount() { return oldInstructionCount; }
+    public int getNewInstructionCount() { return newInstructionCount; }
+    public int getClassifiedLines() { return classifiedLines; }
+    
+    /**
+     * False if the diff ran out of its work budget and reported part of the
+     * changed region as one replace hunk instead of aligning it line by line
+     */
+    public boolean isAlignmentComplete() { return alignmentComplete; }
+    public double getOldTotalEnergy() { return oldTotalEnergy; }
+    public double getOldTotalTime() { return oldTotalTime; }
+    
+    public double getEnergyDelta() {
+        return hunks.stream().mapToDouble(DiffHunk::getEnergyDelta).sum();
+    }
+    
+    public double getTimeDelta() {
+        return hunks.stream().mapToDouble(DiffHunk::getTimeDelta).sum();
+    }
+    
+    public double getNewTotalEnergy() {
+        return oldTotalEnergy + getEnergyDelta();
+    }
+    
+    public double getNewTotalTime() {
+        return oldTotalTime + getTimeDelta();
+    }
+    
+    /**
+     * Energy change relative to the old revision, in percent
+     */
+    public double getEnergyDeltaPercent() {
+        double delta = getEnergyDelta();
+        if (oldTotalEnergy == 0.0) {
+            return delta == 0.0 ? 0.0 : (delta > 0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+        }
+        return delta / oldTotalEnergy * 100.0;
+    }
+    
+    /**
+     * Returns true if total energy grew by more than the given percentage
+     */
+    public boolean exceedsThreshold(double thresholdPercent) {
+        return getEnergyDeltaPercent() > thresholdPercent;
+    }
+}
\ No newline at end of file
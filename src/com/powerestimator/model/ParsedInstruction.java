@@ -6,12 +6,18 @@ package com.powerestimator.model;
 public class ParsedInstruction {
     private final String rawLine;
     private final InstructionCategory category;
+    private final int lineNumber;
     private double power;
     private double executionTime;
     
     public ParsedInstruction(String rawLine, InstructionCategory category) {
+        this(rawLine, category, 0);
+    }
+    
+    public ParsedInstruction(String rawLine, InstructionCategory category, int lineNumber) {
         this.rawLine = rawLine;
         this.category = category;
+        this.lineNumber = lineNumber;
         this.power = 0.0;
         this.executionTime = 0.0;
     }
@@ -19,6 +25,7 @@ public class ParsedInstruction {
     // Getters
     public String getRawLine() { return rawLine; }
     public InstructionCategory getCategory() { return category; }
+    public int getLineNumber() { return lineNumber; }
     public double getPower() { return power; }
     public double getExecutionTime() { return executionTime; }
     
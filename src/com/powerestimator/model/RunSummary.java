@@ -0,0 +1,56 @@
+package com.powerestimator.model;
+
+/**
+ * Stored summary of one file analyzed with one CPU profile in one run
+ */
+public class RunSummary {
+    private final String runId;
+    private final long timestamp;
+    private final String filePath;
+    private final String profileName;
+    private final int instructionCount;
+    private final double totalEnergy;
+    private final double totalTime;
+    private final double totalPower;
+    private final int[] categoryCounts;
+    private final double[] categoryEnergy;
+    
+    public RunSummary(String runId, long timestamp, String filePath, String profileName,
+                      int instructionCount, double totalEnergy, double totalTime, double totalPower,
+                      int[] categoryCounts, double[] categoryEnergy) {
+        this.runId = runId;
+        this.timestamp = timestamp;
+        this.filePath = filePath;
+        this.profileName = profileName;
+        this.instructionCount = instructionCount;
+        this.totalEnergy = totalEnergy;
+        this.totalTime = totalTime;
+        this.totalPower = totalPower;
+        this.categoryCounts = categoryCounts;
+        this.categoryEnergy = categoryEnergy;
+    }
+    
+    // Getters
+    public String getRunId() { return runId; }
+    public long getTimestamp() { return timestamp; }
+    public String getFilePath() { return filePath; }
+    public String getProfileName() { return profileName; }
+    public int getInstructionCount() { return instructionCount; }
+    public double getTotalEnergy() { return totalEnergy; }
+    public double getTotalTime() { return totalTime; }
+    public double getTotalPower() { return totalPower; }
+    
+    public int getCategoryCount(InstructionCategory category) {
+        return categoryCounts[category.ordinal()];
+    }
+    
+    public double getCategoryEnergy(InstructionCategory category) {
+        return categoryEnergy[category.ordinal()];
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s [%s] %s: %d instructions, Energy=%.2f pJ, Time=%.2f ns",
+            runId, profileName, filePath, instructionCount, totalEnergy, totalTime);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.powerestimator.model;
+
+/**
+ * Micro-architectural parameters for the dynamic (stateful) power model.
+ *
+ * Times are in nanoseconds at nominal frequency, powers in milliwatts.
+ */
+public class SimulationParameters {
+    // Pipeline
+    private int pipelineDepth = 5;
+    private double cycleTime = 1.0;
+    private int loadUseStallCycles = 1;
+    
+    // Cache model for MEMORY instructions
+    private double cacheHitRate = 0.90;
+    private double sequentialHitRate = 0.98;
+    private double cacheMissLatency = 20.0;
+    
+    // Branch prediction for BRANCH instructions
+    private double branchMispredictRate = 0.10;
+    
+    // Idle / stall power (leakage while the core waits)
+    private double idlePower = 0.5;
+    
+    // DVFS: frequency and voltage scale per state, lowest state first
+    private double[] frequencyScales = {0.5, 0.75, 1.0};
+    private double[] voltageScales = {0.8, 0.9, 1.0};
+    private int initialState = 0;
+    private int governorWindow = 64;
+    private double upThreshold = 0.80;
+    private double downThreshold = 0.40;
+    private double transitionTime = 10.0;
+    
+    // Seed for the deterministic hit/miss and mispredict sequence
+    private long randomSeed = 0x5DEECE66DL;
+    
+    /**
+     * Sets the DVFS states; both arrays are ordered from lowest to highest frequency
+     */
+    public void setDvfsStates(double[] frequencyScales, double[] voltageScales) {
+        if (frequencyScales.length == 0 || frequencyScales.length != voltageScales.length) {
+            throw new IllegalArgumentException("Frequency and voltage scales must be non-empty and the same length");
+        }
+        this.frequencyScales = frequencyScales.clone();
+        this.voltageScales = voltageScales.clone();
+        this.initialState = Math.min(initialState, frequencyScales.length - 1);
+    }
+    
+    public int getDvfsStateCount() {
+        return frequencyScales.length;
+    }
+    
+    public double getFrequencyScale(int state) {
+        return frequencyScales[state];
+    }
+    
+    public double getVoltageScale(int state) {
+        return voltageScales[state];
+    }
+    
+    /**
+     * Sets the utilization below which the governor steps down and above which it
+     * steps up; both are clamped to [0, 1]
+     */
+    public void setGovernorThresholds(double downThreshold, double upThreshold) {
+        double down = clampRate(downThreshold);
+        double up = clampRate(upThreshold);
+        if (down > up) {
+            throw new IllegalArgumentException("Down threshold must not be above the up threshold");
+        }
+        this.downThreshold = down;
+        this.upThreshold = up;
+    }
+    
+    /**
+     * Dynamic power scale for a DVFS state relative to nominal (P ~ f * V^2)
+     */
+    public double getPowerScale(int state) {
+        return frequencyScales[state] * voltageScales[state] * voltageScales[state];
+    }
+    
+    // Getters
+    public int getPipelineDepth() { return pipelineDepth; }
+    public double getCycleTime() { return cycleTime; }
+    public int getLoadUseStallCycles() { return loadUseStallCycles; }
+    public double getCacheHitRate() { return cacheHitRate; }
+    public double getSequentialHitRate() { return sequentialHitRate; }
+    public double getCacheMissLatency() { return cacheMissLatency; }
+    public double getBranchMispredictRate() { return branchMispredictRate; }
+    public double getIdlePower() { return idlePower; }
+    public int getInitialState() { return initialState; }
+    public int getGovernorWindow() { return governorWindow; }
+    public double getUpThreshold() { return upThreshold; }
+    public double getDownThreshold() { return downThreshold; }
+    public double getTransitionTime() { return transitionTime; }
+    public long getRandomSeed() { return randomSeed; }
+    
+    // Setters
+    public void setPipelineDepth(int pipelineDepth) { this.pipelineDepth = Math.max(1, pipelineDepth); }
+    public void setCycleTime(double cycleTime) { this.cycleTime = cycleTime; }
+    public void setLoadUseStallCycles(int loadUseStallCycles) { this.loadUseStallCycles = loadUseStallCycles; }
+    public void setCacheHitRate(double cacheHitRate) { this.cacheHitRate = clampRate(cacheHitRate); }
+    public void setSequentialHitRate(double sequentialHitRate) { this.sequentialHitRate = clampRate(sequentialHitRate); }
+    public void setCacheMissLatency(double cacheMissLatency) { this.cacheMissLatency = cacheMissLatency; }
+    public void setBranchMispredictRate(double branchMispredictRate) { this.branchMispredictRate = clampRate(branchMispredictRate); }
+    public void setIdlePower(double idlePower) { this.idlePower = idlePower; }
+    public void setInitialState(int initialState) { this.initialState = Math.max(0, Math.min(initialState, frequencyScales.length - 1)); }
+    public void setGovernorWindow(int governorWindow) { this.governorWindow = Math.max(1, governorWindow); }
+    public void setTransitionTime(double transitionTime) { this.transitionTime = transitionTime; }
+    public void setRandomSeed(long randomSeed) { this.randomSeed = randomSeed; }
+    
+    /**
+     * Limits a probability or utilization to [0, 1]; NaN becomes 0
+     */
+    private static double clampRate(double rate) {
+        return rate > 0.0 ? Math.min(rate, 1.0) : 0.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.powerestimator.model;
+
+/**
+ * Totals and event counters produced by a dynamic power simulation run
+ */
+public class SimulationResult {
+    private final long instructionCount;
+    private final double totalEnergy;
+    private final double totalTime;
+    private final double stallTime;
+    private final long cacheHits;
+    private final long cacheMisses;
+    private final long branchMispredicts;
+    private final long loadUseStalls;
+    private final long dvfsTransitions;
+    private final double[] stateResidency;
+    private final double[] categoryEnergy;
+    
+    public SimulationResult(long instructionCount, double totalEnergy, double totalTime, double stallTime,
+                            long cacheHits, long cacheMisses, long branchMispredicts, long loadUseStalls,
+                            long dvfsTransitions, double[] stateResidency, double[] categoryEnergy) {
+        this.instructionCount = instructionCount;
+        this.totalEnergy = totalEnergy;
+        this.totalTime = totalTime;
+        this.stallTime = stallTime;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+        this.branchMispredicts = branchMispredicts;
+        this.loadUseStalls = loadUseStalls;
+        this.dvfsTransitions = dvfsTransitions;
+        this.stateResidency = stateResidency;
+        this.categoryEnergy = categoryEnergy;
+    }
+    
+    // Getters
+    public long getInstructionCount() { return instructionCount; }
+    public double getTotalEnergy() { return totalEnergy; }
+    public double getTotalTime() { return totalTime; }
+    public double getStallTime() { return stallTime; }
+    public long getCacheHits() { return cacheHits; }
+    public long getCacheMisses() { return cacheMisses; }
+    public long getBranchMispredicts() { return branchMispredicts; }
+    public long getLoadUseStalls() { return loadUseStalls; }
+    public long getDvfsTransitions() { return dvfsTransitions; }
+    public int getDvfsStateCount() { return stateResidency.length; }
+    
+    /**
+     * Time spent in the given DVFS state (ns)
+     */
+    public double getStateResidency(int state) {
+        return stateResidency[state];
+    }
+    
+    /**
+     * Energy charged to instructions of the given category, including their stalls
+     * and the DVFS transitions they triggered (pJ); the categories sum to the total
+     */
+    public double getCategoryEnergy(InstructionCategory category) {
+        return categoryEnergy[category.ordinal()];
+    }
+    
+    public double getAveragePower() {
+        return totalTime > 0 ? totalEnergy / totalTime : 0.0;
+    }
+    
+    public double getCacheHitRate() {
+        long accesses = cacheHits + cacheMisses;
+        return accesses > 0 ? (double) cacheHits / accesses : 0.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.powerestimator.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a parameter sweep: sensitivity tables and the variants that are
+ * Pareto-optimal in energy vs deviation from the base profile
+ */
+public class SweepReport {
+    private final CPUProfile baseProfile;
+    private final List<CoefficientRange> ranges;
+    private final int[] categoryCounts;
+    private final double baselineEnergy;
+    private final double baselineTime;
+    private final double[][] sensitivityEnergy;
+    private final double[][] sensitivityTime;
+    private final long variantCount;
+    private final double minEnergy;
+    private final double maxEnergy;
+    private final double averageEnergy;
+    private final List<SweepResult> paretoFront;
+    
+    public SweepReport(CPUProfile baseProfile, List<CoefficientRange> ranges, int[] categoryCounts,
+                       double baselineEnergy, double baselineTime,
+                       double[][] sensitivityEnergy, double[][] sensitivityTime,
+                       long variantCount, double minEnergy, double maxEnergy, double averageEnergy,
+                       List<SweepResult> paretoFront) {
+        this.baseProfile = baseProfile;
+        this.ranges = ranges;
+        this.categoryCounts = categoryCounts;
+        this.baselineEnergy = baselineEnergy;
+        this.baselineTime = baselineTime;
+        this.sensitivityEnergy = sensitivityEnergy;
+        this.sensitivityTime = sensitivityTime;
+        this.variantCount = variantCount;
+        this.minEnergy = minEnergy;
+        this.maxEnergy = maxEnergy;
+        this.averageEnergy = averageEnergy;
+        this.paretoFront = paretoFront;
+    }
+    
+    // Getters
+    public CPUProfile getBaseProfile() { return baseProfile; }
+    public List<CoefficientRange> getRanges() { return ranges; }
+    public int getCategoryCount(InstructionCategory category) { return categoryCounts[category.ordinal()]; }
+    public double getBaselineEnergy() { return baselineEnergy; }
+    public double getBaselineTime() { return baselineTime; }
+    public long getVariantCount() { return variantCount; }
+    public double getMinEnergy() { return minEnergy; }
+    public double getMaxEnergy() { return maxEnergy; }
+    public double getAverageEnergy() { return averageEnergy; }
+    public List<SweepResult> getParetoFront() { return paretoFront; }
+    
+    /**
+     * Total energy when only the given range is at the given step (all others at base)
+     */
+    public double getSensitivityEnergy(int rangeIndex, int step) {
+        return sensitivityEnergy[rangeIndex][step];
+    }
+    
+    /**
+     * Total time when only the given range is at the given step (all others at base)
+     */
+    public double getSensitivityTime(int rangeIndex, int step) {
+        return sensitivityTime[rangeIndex][step];
+    }
+    
+    /**
+     * Elasticity of total energy with respect to a coefficient: relative change in
+     * energy divided by relative change in the coefficient across its range
+     */
+    public double getEnergyElasticity(int rangeIndex) {
+        CoefficientRange range = ranges.get(rangeIndex);
+        double baseValue = range.baseValue(baseProfile);
+        if (baselineEnergy == 0.0 || baseValue == 0.0 || range.getMax() == range.getMin()) {
+            return 0.0;
+        }
+        double[] energies = sensitivityEnergy[rangeIndex];
+        double energyChange = (energies[energies.length - 1] - energies[0]) / baselineEnergy;
+        double valueChange = (range.getMax() - range.getMin()) / baseValue;
+        return energyChange / valueChange;
+    }
+}
\ No newline at end of file
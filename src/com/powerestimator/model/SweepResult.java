@@ -0,0 +1,40 @@
+package com.powerestimator.model;
+
+/**
+ * Result of evaluating one profile variant in a parameter sweep
+ */
+public class SweepResult {
+    private final long variantIndex;
+    private final double[] coefficientValues;
+    private final double totalEnergy;
+    private final double totalTime;
+    private final double deviation;
+    
+    public SweepResult(long variantIndex, double[] coefficientValues, double totalEnergy, double totalTime,
+                       double deviation) {
+        this.variantIndex = variantIndex;
+        this.coefficientValues = coefficientValues;
+        this.totalEnergy = totalEnergy;
+        this.totalTime = totalTime;
+        this.deviation = deviation;
+    }
+    
+    // Getters
+    public long getVariantIndex() { return variantIndex; }
+    public double getCoefficientValue(int rangeIndex) { return coefficientValues[rangeIndex]; }
+    public double getTotalEnergy() { return totalEnergy; }
+    public double getTotalTime() { return totalTime; }
+    
+    /**
+     * How far the variant moves from the base profile: the root of the summed squared
+     * relative changes of the swept coefficients (0 = base profile)
+     */
+    public double getDeviation() { return deviation; }
+    
+    /**
+     * Average power over the run (energy / time)
+     */
+    public double getAveragePower() {
+        return totalTime > 0 ? totalEnergy / totalTime : 0.0;
+    }
+}
\ No newline at end of file
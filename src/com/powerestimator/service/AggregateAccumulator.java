@@ -0,0 +1,161 @@
+package com.powerestimator.service;
+
+import com.powerestimator.model.AggregateSnapshot;
+import com.powerestimator.model.CPUProfile;
+import com.powerestimator.model.InstructionCategory;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Thread-safe running totals that producers update while other threads poll them.
+ *
+ * Like LongAdder, updates are spread over several cells so concurrent producers
+ * rarely touch the same one. Each cell is updated under its own lock, so a
+ * snapshot only ever contains whole records: the category counts always add up
+ * to the instruction count, and energy matches the recorded instructions. A thread
+ * that finds its cell locked moves to another cell and stays there, instead of
+ * waiting for the other producer.
+ */
+public class AggregateAccumulator {
+    private static final int CATEGORY_COUNT = InstructionCategory.values().length;
+    private static final int PAD = 16; // longs (128 bytes) of padding on each side of a cell's counts
+    
+    // Per-thread cell selector, shared by all accumulators like LongAdder's probe
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> {
+        // Spread thread ids so consecutive threads land on different cells
+        long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return new int[] { (int) (id >>> 32) | 1 };
+    });
+    
+    private final double[] categoryPower = new double[CATEGORY_COUNT];
+    private final double[] categoryTime = new double[CATEGORY_COUNT];
+    private final Cell[] cells;
+    private final int mask;
+    
+    public AggregateAccumulator(CPUProfile cpuProfile) {
+        for (InstructionCategory category : InstructionCategory.values()) {
+            categoryPower[category.ordinal()] = cpuProfile.getPowerForCategory(category);
+            categoryTime[category.ordinal()] = cpuProfile.getTimeForCategory(category);
+        }
+        
+        // Power of two at least twice the processor count
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        cells = new Cell[stripes];
+        for (int i = 0; i < stripes; i++) {
+            cells[i] = new Cell();
+        }
+        mask = stripes - 1;
+    }
+    
+    /**
+     * Records one instruction using the profile's cost for its category
+     */
+    public void record(InstructionCategory category) {
+        int c = category.ordinal();
+        double power = categoryPower[c];
+        double time = categoryTime[c];
+        Cell cell = lockCell();
+        try {
+            cell.instructionCount++;
+            cell.categoryCounts[PAD + c]++;
+            cell.totalPower += power;
+            cell.totalTime += time;
+            cell.totalEnergy += power * time;
+        } finally {
+            cell.unlock();
+        }
+    }
+    
+    /**
+     * Returns the current totals; safe to call from any thread at any time
+     */
+    public AggregateSnapshot snapshot() {
+        long instructionCount = 0;
+        double totalPower = 0.0, totalTime = 0.0, totalEnergy = 0.0;
+        long[] counts = new long[CATEGORY_COUNT];
+        
+        for (Cell cell : cells) {
+            cell.lock();
+            try {
+                instructionCount += cell.instructionCount;
+                totalPower += cell.totalPower;
+                totalTime += cell.totalTime;
+                totalEnergy += cell.totalEnergy;
+                for (int c = 0; c < CATEGORY_COUNT; c++) {
+                    counts[c] += cell.categoryCounts[PAD + c];
+                }
+            } finally {
+                cell.unlock();
+            }
+        }
+        return new AggregateSnapshot(instructionCount, totalPower, totalTime, totalEnergy, counts);
+    }
+    
+    /**
+     * Locks the calling thread's cell. If it is busy, the thread is moved to another
+     * cell; only after every cell was found busy does it wait for one.
+     */
+    private Cell lockCell() {
+        int[] probe = PROBE.get();
+        Cell cell = cells[probe[0] & mask];
+        for (int attempt = 0; !cell.tryLock(); attempt++) {
+            // xorshift step to a new cell, remembered for this thread's next updates
+            int h = probe[0];
+            h ^= h << 13;
+            h ^= h >>> 17;
+            h ^= h << 5;
+            probe[0] = h;
+            cell = cells[h & mask];
+            if (attempt >= cells.length) {
+                cell.lock();
+                break;
+            }
+        }
+        return cell;
+    }
+    
+    /**
+     * Padding placed before a cell's fields. Field layout follows the class
+     * hierarchy, so this and CellRightPad keep the hot fields of neighbouring cells
+     * off each other's cache lines (128 bytes, to cover adjacent-line prefetch).
+     */
+    @SuppressWarnings("unused")
+    private abstract static class CellLeftPad {
+        long p00, p01, p02, p03, p04, p05, p06, p07, p08, p09, p10, p11, p12, p13, p14, p15;
+    }
+    
+    /**
+     * One stripe of the totals, with a small CAS lock so producers can try another
+     * cell instead of blocking
+     */
+    private abstract static class CellFields extends CellLeftPad {
+        static final AtomicIntegerFieldUpdater<CellFields> BUSY =
+            AtomicIntegerFieldUpdater.newUpdater(CellFields.class, "busy");
+        
+        volatile int busy;
+        long instructionCount;
+        double totalPower;
+        double totalTime;
+        double totalEnergy;
+        // Separate allocation, so it carries its own padding on both sides
+        final long[] categoryCounts = new long[PAD + CATEGORY_COUNT + PAD];
+        
+        boolean tryLock() {
+            return busy == 0 && BUSY.compareAndSet(this, 0, 1);
+        }
+        
+        void lock() {
+            while (!tryLock()) {
+                Thread.yield();
+            }
+        }
+        
+        void unlock() {
+            busy = 0;
+        }
+    }
+    
+    @SuppressWarnings("unused")
+    private static final class Cell extends CellFields {
+        long q00, q01, q02, q03, q04, q05, q06, q07, q08, q09, q10, q11, q12, q13, q14, q15;
+    }
+}
\ No newline at end of file
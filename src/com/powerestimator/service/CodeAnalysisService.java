@@ -2,18 +2,54 @@ package com.powerestimator.service;
 
 import com.powerestimator.model.InstructionCategory;
 import com.powerestimator.model.ParsedInstruction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
 /**
  * Service for analyzing code and categorizing instructions
  */
 public class CodeAnalysisService {
+    // Compiled once; String.matches would recompile each pattern for every line
+    private static final Pattern COMPOUND_ASSIGNMENT = Pattern.compile(".*[+\\-*/%]=.*");
+    private static final Pattern ASSIGNED_EXPRESSION = Pattern.compile(".*=.*[+\\-*/%].*");
+    private static final Pattern INCREMENT = Pattern.compile(".*\\+\\+.*");
+    private static final Pattern DECREMENT = Pattern.compile(".*--.*");
+    private static final Pattern BITWISE = Pattern.compile(".*[&|^].*");
+    private static final Pattern NEGATION = Pattern.compile(".*!.*");
+    private static final Pattern BRANCH_KEYWORD = Pattern.compile("^(if|else|switch|case|default).*");
+    private static final Pattern CONTROL_KEYWORD = Pattern.compile("^(for|while|do|break|continue|return).*");
+    
+    // Classification rules, checked in order; the first rule that matches wins
+    private static final Rule[] RULES = {
+        // ARITHMETIC: +, -, *, /, %, math operations
+        new Rule(InstructionCategory.ARITHMETIC, new String[] {"math."},
+                 COMPOUND_ASSIGNMENT, ASSIGNED_EXPRESSION, INCREMENT, DECREMENT),
+        // LOGICAL: &&, ||, !, ^, &, |
+        new Rule(InstructionCategory.LOGICAL, new String[] {"&&", "||"}, BITWISE, NEGATION),
+        // BRANCH: if, else, switch, case
+        new Rule(InstructionCategory.BRANCH, new String[0], BRANCH_KEYWORD),
+        // CONTROL: for, while, do, break, continue, return
+        new Rule(InstructionCategory.CONTROL, new String[0], CONTROL_KEYWORD),
+        // MEMORY: array access [], new, memory allocation
+        new Rule(InstructionCategory.MEMORY, new String[] {"[", "new ", "malloc", "free"})
+    };
+    private static final long CLASSIFIER_FINGERPRINT = fingerprint(RULES);
     
     /**
      * Analyzes code text and returns list of parsed instructions
      */
     public List<ParsedInstruction> analyzeCode(String codeText) {
+        return analyzeCode(codeText, new AggregateAccumulator[0]);
+    }
+    
+    /**
+     * Analyzes code text and records every instruction into the given accumulators
+     * as it is found, so other threads can watch the running totals
+     */
+    public List<ParsedInstruction> analyzeCode(String codeText, AggregateAccumulator... accumulators) {
         List<ParsedInstruction> instructions = new ArrayList<>();
         
         if (codeText == null || codeText.trim().isEmpty()) {
@@ -22,62 +58,98 @@ public class CodeAnalysisService {
         
         String[] lines = codeText.split("\n");
         
-        for (String line : lines) {
-            line = line.trim();
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
             
             // Skip empty lines and comments
-            if (line.isEmpty() || line.startsWith("//") || 
-                line.startsWith("/*") || line.startsWith("*")) {
+            if (!isInstructionLine(line)) {
                 continue;
             }
             
             InstructionCategory category = categorizeInstruction(line);
-            ParsedInstruction instruction = new ParsedInstruction(line, category);
+            ParsedInstruction instruction = new ParsedInstruction(line, category, i + 1);
             instructions.add(instruction);
+            
+            for (AggregateAccumulator accumulator : accumulators) {
+                accumulator.record(category);
+            }
         }
         
         return instructions;
     }
     
+    /**
+     * Returns true if a trimmed line holds an instruction (not empty and not a comment)
+     */
+    boolean isInstructionLine(String line) {
+        return !(line.isEmpty() || line.startsWith("//") || 
+                 line.startsWith("/*") || line.startsWith("*"));
+    }
+    
     /**
      * Categorizes a single line of code into an instruction category
      */
-    private InstructionCategory categorizeInstruction(String line) {
+    InstructionCategory categorizeInstruction(String line) {
         String lower = line.toLowerCase();
-        
-        // ARITHMETIC: +, -, *, /, %, math operations
-        if (lower.matches(".*[+\\-*/%]=.*") || 
-            lower.matches(".*=.*[+\\-*/%].*") ||
-            lower.contains("math.") ||
-            lower.matches(".*\\+\\+.*") ||
-            lower.matches(".*--.*")) {
-            return InstructionCategory.ARITHMETIC;
-        }
-        
-        // LOGICAL: &&, ||, !, ^, &, |
-        if (lower.contains("&&") || lower.contains("||") || 
-            lower.matches(".*[&|^].*") ||
-            lower.matches(".*!.*")) {
-            return InstructionCategory.LOGICAL;
+        for (Rule rule : RULES) {
+            if (rule.matches(lower)) {
+                return rule.category;
+            }
         }
         
-        // BRANCH: if, else, switch, case
-        if (lower.matches("^(if|else|switch|case|default).*")) {
-            return InstructionCategory.BRANCH;
+        // Default: UNKNOWN
+        return InstructionCategory.UNKNOWN;
+    }
+    
+    /**
+     * Checksum of the classification rules (categories, patterns, keywords and their
+     * order). Saved classifications are only reused while it stays the same.
+     */
+    static long getClassifierFingerprint() {
+        return CLASSIFIER_FINGERPRINT;
+    }
+    
+    private static long fingerprint(Rule[] rules) {
+        StringBuilder description = new StringBuilder();
+        for (Rule rule : rules) {
+            description.append(rule.category).append('\0');
+            for (String keyword : rule.keywords) {
+                description.append("k:").append(keyword).append('\0');
+            }
+            for (Pattern pattern : rule.patterns) {
+                description.append("p:").append(pattern.pattern()).append('\0');
+            }
+            description.append('\n');
         }
+        CRC32 crc = new CRC32();
+        byte[] bytes = description.toString().getBytes(StandardCharsets.UTF_8);
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+    
+    /**
+     * One category rule: matches if the lower-cased line contains any of the
+     * keywords or matches any of the patterns
+     */
+    private static final class Rule {
+        final InstructionCategory category;
+        final String[] keywords;
+        final Pattern[] patterns;
         
-        // CONTROL: for, while, do, break, continue, return
-        if (lower.matches("^(for|while|do|break|continue|return).*")) {
-            return InstructionCategory.CONTROL;
+        Rule(InstructionCategory category, String[] keywords, Pattern... patterns) {
+            this.category = category;
+            this.keywords = keywords;
+            this.patterns = patterns;
         }
         
-        // MEMORY: array access [], new, memory allocation
-        if (lower.contains("[") || lower.contains("new ") || 
-            lower.contains("malloc") || lower.contains("free")) {
-            return InstructionCategory.MEMORY;
+        boolean matches(String lower) {
+            for (String keyword : keywords) {
+                if (lower.contains(keyword)) return true;
+            }
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(lower).matches()) return true;
+            }
+            return false;
         }
-        
-        // Default: UNKNOWN
-        return InstructionCategory.UNKNOWN;
     }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package com.powerestimator.service;
+
+import com.powerestimator.model.CPUProfile;
+import com.powerestimator.model.InstructionCategory;
+import com.powerestimator.model.ParsedInstruction;
+import com.powerestimator.model.SimulationParameters;
+import com.powerestimator.model.SimulationResult;
+import java.util.List;
+
+/**
+ * Stateful power model that simulates a small in-order pipeline, a cache hit/miss
+ * model for MEMORY instructions, branch mispredictions and DVFS frequency states.
+ *
+ * Unlike PowerCalculationService, the cost of an instruction depends on what ran
+ * before it. The step loop works on primitive arrays only and does not allocate,
+ * so it can be run over millions of instructions.
+ */
+public class DynamicPowerSimulator {
+    private static final int CATEGORY_COUNT = InstructionCategory.values().length;
+    private static final int ARITHMETIC = InstructionCategory.ARITHMETIC.ordinal();
+    private static final int LOGICAL = InstructionCategory.LOGICAL.ordinal();
+    private static final int BRANCH = InstructionCategory.BRANCH.ordinal();
+    private static final int MEMORY = InstructionCategory.MEMORY.ordinal();
+    
+    /**
+     * Simulates the instructions once and stores each instruction's effective
+     * power and time (including its stalls and any DVFS switch it triggered) back into it
+     */
+    public SimulationResult simulate(List<ParsedInstruction> instructions, CPUProfile cpuProfile) {
+        byte[] ops = encode(instructions);
+        double[] power = new double[ops.length];
+        double[] time = new double[ops.length];
+        
+        SimulationResult result = simulate(ops, ops.length, 1, cpuProfile, power, time);
+        
+        for (int i = 0; i < ops.length; i++) {
+            ParsedInstruction instruction = instructions.get(i);
+            instruction.setPower(power[i]);
+            instruction.setExecutionTime(time[i]);
+        }
+        return result;
+    }
+    
+    /**
+     * Encodes an instruction stream as category ordinals for the step loop
+     */
+    public byte[] encode(List<ParsedInstruction> instructions) {
+        byte[] ops = new byte[instructions.size()];
+        for (int i = 0; i < ops.length; i++) {
+            ops[i] = (byte) instructions.get(i).getCategory().ordinal();
+        }
+        return ops;
+    }
+    
+    /**
+     * Runs the first {@code length} encoded instructions {@code iterations} times in a row
+     * (like a loop body). If {@code outPower}/{@code outTime} are non-null they receive the
+     * per-instruction values of the last iteration.
+     */
+    public SimulationResult simulate(byte[] ops, int length, long iterations, CPUProfile cpuProfile,
+                                     double[] outPower, double[] outTime) {
+        SimulationParameters params = cpuProfile.getSimulationParameters();
+        
+        double[] categoryPower = new double[CATEGORY_COUNT];
+        double[] categoryTime = new double[CATEGORY_COUNT];
+        for (InstructionCategory category : InstructionCategory.values()) {
+            categoryPower[category.ordinal()] = cpuProfile.getPowerForCategory(category);
+            categoryTime[category.ordinal()] = cpuProfile.getTimeForCategory(category);
+        }
+        
+        int stateCount = params.getDvfsStateCount();
+        double[] frequencyScale = new double[stateCount];
+        double[] powerScale = new double[stateCount];
+        for (int s = 0; s < stateCount; s++) {
+            frequencyScale[s] = params.getFrequencyScale(s);
+            powerScale[s] = params.getPowerScale(s);
+        }
+        
+        double[] stateResidency = new double[stateCount];
+        double[] categoryEnergy = new double[CATEGORY_COUNT];
+        
+        double flushCycles = (params.getPipelineDepth() - 1) * params.getCycleTime();
+        double loadUseCycles = params.getLoadUseStallCycles() * params.getCycleTime();
+        double hitRate = params.getCacheHitRate();
+        double sequentialHitRate = params.getSequentialHitRate();
+        double missLatency = params.getCacheMissLatency();
+        double mispredictRate = params.getBranchMispredictRate();
+        double idlePower = params.getIdlePower();
+        int window = params.getGovernorWindow();
+        double upThreshold = params.getUpThreshold();
+        double downThreshold = params.getDownThreshold();
+        double transitionTime = params.getTransitionTime();
+        long random = params.getRandomSeed() == 0 ? 1 : params.getRandomSeed();
+        
+        int state = params.getInitialState();
+        int previous = -1;
+        boolean pipelineEmpty = true;
+        
+        double totalEnergy = 0.0;
+        double totalTime = 0.0;
+        double stallTime = 0.0;
+        long cacheHits = 0, cacheMisses = 0, mispredicts = 0, loadUseStalls = 0, transitions = 0;
+        double windowActive = 0.0, windowTotal = 0.0;
+        int windowCount = 0;
+        
+        for (long iteration = 0; iteration < iterations; iteration++) {
+            boolean lastIteration = iteration == iterations - 1;
+            
+            for (int i = 0; i < length; i++) {
+                int op = ops[i];
+                double frequency = frequencyScale[state];
+                double active = categoryTime[op] / frequency;
+                double bubble = 0.0;   // pipeline cycles, scale with frequency
+                double stall = 0.0;    // memory latency, does not scale with frequency
+                
+                // Pipeline fill at start; the refill after a mispredict is charged to the branch below
+                if (pipelineEmpty) {
+                    bubble += flushCycles / frequency;
+                    pipelineEmpty = false;
+                }
+                
+                // Load-use hazard: a value loaded by MEMORY is consumed straight away
+                if (previous == MEMORY && (op == ARITHMETIC || op == LOGICAL || op == BRANCH)) {
+                    bubble += loadUseCycles / frequency;
+                    loadUseStalls++;
+                }
+                
+                if (op == MEMORY) {
+                    // Back-to-back accesses are likely to hit the same cache lines
+                    double hitProbability = previous == MEMORY ? sequentialHitRate : hitRate;
+                    random ^= random << 13;
+                    random ^= random >>> 7;
+                    random ^= random << 17;
+                    if ((random >>> 11) * 0x1.0p-53 < hitProbability) {
+                        cacheHits++;
+                    } else {
+                        cacheMisses++;
+                        stall += missLatency;
+                    }
+                } else if (op == BRANCH) {
+                    random ^= random << 13;
+                    random ^= random >>> 7;
+                    random ^= random << 17;
+                    if ((random >>> 11) * 0x1.0p-53 < mispredictRate) {
+                        mispredicts++;
+                        bubble += flushCycles / frequency;
+                    }
+                }
+                
+                double waiting = bubble + stall;
+                double time = active + waiting;
+                double energy = categoryPower[op] * powerScale[state] * active + idlePower * waiting;
+                stateResidency[state] += time;
+                
+                // DVFS governor: step frequency up when busy, down when mostly stalled
+                windowActive += active;
+                windowTotal += time;
+                if (++windowCount == window) {
+                    double utilization = windowActive / windowTotal;
+                    int target = state;
+                    if (utilization > upThreshold && state < stateCount - 1) {
+                        target = state + 1;
+                    } else if (utilization < downThreshold && state > 0) {
+                        target = state - 1;
+                    }
+                    if (target != state) {
+                        // The switch is charged to the instruction that triggered it,
+                        // so instruction and category energies add up to the total
+                        state = target;
+                        transitions++;
+                        waiting += transitionTime;
+                        time += transitionTime;
+                        energy += idlePower * transitionTime;
+                        stateResidency[state] += transitionTime;
+                    }
+                    windowActive = 0.0;
+                    windowTotal = 0.0;
+                    windowCount = 0;
+                }
+                
+                totalEnergy += energy;
+                totalTime += time;
+                stallTime += waiting;
+                categoryEnergy[op] += energy;
+                
+                if (lastIteration && outPower != null) {
+                    outPower[i] = time > 0 ? energy / time : 0.0;
+                    outTime[i] = time;
+                }
+                
+                previous = op;
+            }
+        }
+        
+        return new SimulationResult(length * iterations, totalEnergy, totalTime, stallTime,
+                cacheHits, cacheMisses, mispredicts, loadUseStalls, transitions,
+                stateResidency, categoryEnergy);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,389 @@
+package com.powerestimator.service;
+
+import com.powerestimator.model.CPUProfile;
+import com.powerestimator.model.DiffHunk;
+import com.powerestimator.model.EnergyDiffResult;
+import com.powerestimator.model.InstructionCategory;
+import com.powerestimator.model.ParsedInstruction;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for comparing the energy of two revisions of the same code.
+ *
+ * The instruction lines of both revisions are aligned with a linear-space Myers
+ * line diff. Unchanged lines reuse the classification of their old counterpart
+ * and only lines inside changed hunks are scored. Classifications are cached by
+ * line text and can be saved between runs, so lines seen by an earlier run are
+ * not classified again.
+ */
+public class EnergyDiffService {
+    // Diagonal steps the alignment may take before the rest is reported as one hunk
+    private static final long MAX_ALIGNMENT_STEPS = 200_000_000L;
+    private static final int MAX_CACHE_SIZE = 100_000;
+    private static final int CACHE_MAGIC = 0x50454343; // "PECC"
+    private static final int CACHE_VERSION = 2;
+    private static final int MAX_CACHED_LINE_BYTES = 65535; // writeUTF limit
+    
+    private final CodeAnalysisService analysisService;
+    private final PowerCalculationService powerService;
+    private final Map<String, InstructionCategory> classificationCache = new HashMap<>();
+    private int classifiedLines;
+    private long alignmentSteps;
+    private boolean alignmentComplete;
+    
+    public EnergyDiffService() {
+        this(new CodeAnalysisService(), new PowerCalculationService());
+    }
+    
+    public EnergyDiffService(CodeAnalysisService analysisService, PowerCalculationService powerService) {
+        this.analysisService = analysisService;
+        this.powerService = powerService;
+    }
+    
+    /**
+     * Compares two revisions of code and returns per-hunk energy and time deltas
+     */
+    public EnergyDiffResult diff(String oldCode, String newCode, CPUProfile cpuProfile) {
+        classifiedLines = 0;
+        alignmentSteps = 0;
+        alignmentComplete = true;
+        
+        List<String> oldText = new ArrayList<>();
+        List<Integer> oldLines = new ArrayList<>();
+        List<String> newText = new ArrayList<>();
+        List<Integer> newLines = new ArrayList<>();
+        extractInstructionLines(oldCode, oldText, oldLines);
+        extractInstructionLines(newCode, newText, newLines);
+        
+        // Map each distinct line to an integer so the diff compares ints, not strings
+        Map<String, Integer> ids = new HashMap<>();
+        int[] a = toIds(oldText, ids);
+        int[] b = toIds(newText, ids);
+        
+        int[] oldToNew = new int[a.length];
+        int[] newToOld = new int[b.length];
+        Arrays.fill(oldToNew, -1);
+        Arrays.fill(newToOld, -1);
+        align(a, b, oldToNew, newToOld);
+        
+        // Old revision: classify every line (cached) to get the baseline totals
+        InstructionCategory[] oldCategories = new InstructionCategory[a.length];
+        double oldTotalEnergy = 0.0;
+        double oldTotalTime = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            oldCategories[i] = classify(oldText.get(i));
+            double power = cpuProfile.getPowerForCategory(oldCategories[i]);
+            double time = cpuProfile.getTimeForCategory(oldCategories[i]);
+            oldTotalEnergy += power * time;
+            oldTotalTime += time;
+        }
+        
+        // Walk both streams; unmatched runs between matched lines form a hunk
+        List<DiffHunk> hunks = new ArrayList<>();
+        int i = 0, j = 0;
+        while (i < a.length || j < b.length) {
+            if (i < a.length && j < b.length && oldToNew[i] == j) {
+                i++;
+                j++;
+                continue;
+            }
+            
+            int oldStart = i, newStart = j;
+            while (i < a.length && oldToNew[i] == -1) i++;
+            while (j < b.length && newToOld[j] == -1) j++;
+            
+            List<ParsedInstruction> removed = new ArrayList<>();
+            for (int k = oldStart; k < i; k++) {
+                removed.add(new ParsedInstruction(oldText.get(k), oldCategories[k], oldLines.get(k)));
+            }
+            List<ParsedInstruction> added = new ArrayList<>();
+            for (int k = newStart; k < j; k++) {
+                added.add(new ParsedInstruction(newText.get(k), classify(newText.get(k)), newLines.get(k)));
+            }
+            
+            powerService.calculatePowerForInstructions(removed, cpuProfile);
+            powerService.calculatePowerForInstructions(added, cpuProfile);
+            
+            hunks.add(new DiffHunk(
+                startLine(oldLines, oldStart), startLine(newLines, newStart), removed, added,
+                powerService.calculateTotalEnergy(removed), powerService.calculateTotalEnergy(added),
+                powerService.calculateTotalTime(removed), powerService.calculateTotalTime(added)));
+        }
+        
+        return new EnergyDiffResult(cpuProfile, hunks, a.length, b.length, classifiedLines,
+                alignmentComplete, oldTotalEnergy, oldTotalTime);
+    }
+    
+    /**
+     * Collects the trimmed instruction lines of the code and their 1-based line numbers
+     */
+    private void extractInstructionLines(String code, List<String> text, List<Integer> lineNumbers) {
+        if (code == null) return;
+        String[] lines = code.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (analysisService.isInstructionLine(line)) {
+                text.add(line);
+                lineNumbers.add(i + 1);
+            }
+        }
+    }
+    
+    private int[] toIds(List<String> lines, Map<String, Integer> ids) {
+        int[] result = new int[lines.size()];
+        for (int i = 0; i < result.length; i++) {
+            Integer id = ids.get(lines.get(i));
+            if (id == null) {
+                id = ids.size();
+                ids.put(lines.get(i), id);
+            }
+            result[i] = id;
+        }
+        return result;
+    }
+    
+    private int startLine(List<Integer> lineNumbers, int index) {
+        if (index < lineNumbers.size()) return lineNumbers.get(index);
+        return lineNumbers.isEmpty() ? 1 : lineNumbers.get(lineNumbers.size() - 1) + 1;
+    }
+    
+    /**
+     * Loads classifications saved by an earlier run. A missing file, or one written
+     * for other categories or classification rules, leaves the cache as it is.
+     */
+    public void loadClassificationCache(String filename) throws IOException {
+        File file = new File(filename);
+        if (!file.isFile()) return;
+        
+        InstructionCategory[] categories = InstructionCategory.values();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != CACHE_MAGIC || in.readUnsignedByte() != CACHE_VERSION ||
+                in.readUnsignedByte() != categories.length ||
+                in.readLong() != CodeAnalysisService.getClassifierFingerprint()) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count && classificationCache.size() < MAX_CACHE_SIZE; i++) {
+                int category = in.readUnsignedByte();
+                String line = in.readUTF();
+                if (category < categories.length) {
+                    classificationCache.putIfAbsent(line, categories[category]);
+                }
+            }
+        } catch (EOFException e) {
+            // Truncated file: keep the entries read so far
+        }
+    }
+    
+    /**
+     * Saves the classification cache for later runs. The file is replaced
+     * atomically, so concurrent runs never see a half-written cache.
+     */
+    public void saveClassificationCache(String filename) throws IOException {
+        File file = new File(filename).getAbsoluteFile();
+        if (!file.getParentFile().isDirectory()) {
+            throw new FileNotFoundException("Directory does not exist: " + file.getParent());
+        }
+        File temp = Files.createTempFile(file.getParentFile().toPath(), "pecc", ".tmp").toFile();
+        try {
+            List<Map.Entry<String, InstructionCategory>> entries = new ArrayList<>();
+            for (Map.Entry<String, InstructionCategory> entry : classificationCache.entrySet()) {
+                if (entry.getKey().getBytes(StandardCharsets.UTF_8).length <= MAX_CACHED_LINE_BYTES) {
+                    entries.add(entry);
+                }
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeByte(CACHE_VERSION);
+                out.writeByte(InstructionCategory.values().length);
+                out.writeLong(CodeAnalysisService.getClassifierFingerprint());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, InstructionCategory> entry : entries) {
+                    out.writeByte(entry.getValue().ordinal());
+                    out.writeUTF(entry.getKey());
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.delete();
+        }
+    }
+    
+    /**
+     * Classifies a line, reusing earlier results for identical lines
+     */
+    private InstructionCategory classify(String line) {
+        InstructionCategory category = classificationCache.get(line);
+        if (category == null) {
+            if (classificationCache.size() >= MAX_CACHE_SIZE) {
+                classificationCache.clear();
+            }
+            category = analysisService.categorizeInstruction(line);
+            classificationCache.put(line, category);
+            classifiedLines++;
+        }
+        return category;
+    }
+    
+    /**
+     * Fills the match arrays with a longest common subsequence alignment of a and b
+     */
+    private void align(int[] a, int[] b, int[] oldToNew, int[] newToOld) {
+        align(a, 0, a.length, b, 0, b.length, oldToNew, newToOld);
+    }
+    
+    /**
+     * Linear-space Myers diff of a[aStart, aEnd) against b[bStart, bEnd): finds the
+     * middle snake of an optimal edit script and recurses on both sides of it, so
+     * memory stays O(n + m) however many edits there are
+     */
+    private void align(int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd,
+                       int[] oldToNew, int[] newToOld) {
+        // Common prefix and suffix are matched directly
+        while (aStart < aEnd && bStart < bEnd && a[aStart] == b[bStart]) {
+            match(aStart++, bStart++, oldToNew, newToOld);
+        }
+        while (aStart < aEnd && bStart < bEnd && a[aEnd - 1] == b[bEnd - 1]) {
+            match(--aEnd, --bEnd, oldToNew, newToOld);
+        }
+        if (aStart == aEnd || bStart == bEnd) return;
+        
+        int n = aEnd - aStart;
+        int m = bEnd - bStart;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD + 1;
+        int[] forward = new int[2 * maxD + 3];  // furthest x on each diagonal k = x - y from the start
+        int[] backward = new int[2 * maxD + 3]; // same, measured back from the end
+        Arrays.fill(forward, -1);
+        Arrays.fill(backward, -1);
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        int delta = n - m;
+        boolean oddDelta = (delta & 1) != 0;
+        
+        for (int d = 0; d <= maxD; d++) {
+            // Out of budget: leave the rest of this region unmatched (one replace hunk)
+            alignmentSteps += 2L * d + 2;
+            if (alignmentSteps > MAX_ALIGNMENT_STEPS) {
+                alignmentComplete = false;
+                return;
+            }
+            
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) ?
+                        forward[offset + k + 1] : forward[offset + k - 1] + 1;
+                int y = x - k;
+                if (x < 0 || x > n || y < 0 || y > m) continue;
+                while (x < n && y < m && a[aStart + x] == b[bStart + y]) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                int reverseK = delta - k;
+                if (oddDelta && reverseK >= -(d - 1) && reverseK <= d - 1 &&
+                    backward[offset + reverseK] >= 0 && x + backward[offset + reverseK] >= n) {
+                    split(a, aStart, aEnd, b, bStart, bEnd, aStart + x, bStart + y, oldToNew, newToOld);
+                    return;
+                }
+            }
+            
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1])) ?
+                        backward[offset + k + 1] : backward[offset + k - 1] + 1;
+                int y = x - k;
+                if (x < 0 || x > n || y < 0 || y > m) continue;
+                while (x < n && y < m && a[aEnd - 1 - x] == b[bEnd - 1 - y]) {
+                    x++;
+                    y++;
+                }
+                backward[offset + k] = x;
+                int forwardK = delta - k;
+                if (!oddDelta && forwardK >= -d && forwardK <= d &&
+                    forward[offset + forwardK] >= 0 && forward[offset + forwardK] + x >= n) {
+                    int splitX = forward[offset + forwardK];
+                    split(a, aStart, aEnd, b, bStart, bEnd, aStart + splitX, bStart + splitX - forwardK,
+                          oldToNew, newToOld);
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void split(int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd, int aSplit, int bSplit,
+                       int[] oldToNew, int[] newToOld) {
+        align(a, aStart, aSplit, b, bStart, bSplit, oldToNew, newToOld);
+        align(a, aSplit, aEnd, b, bSplit, bEnd, oldToNew, newToOld);
+    }
+    
+    private static void match(int oldIndex, int newIndex, int[] oldToNew, int[] newToOld) {
+        oldToNew[oldIndex] = newIndex;
+        newToOld[newIndex] = oldIndex;
+    }
+    
+    /**
+     * Writes the diff report
+     */
+    public void writeReport(EnergyDiffResult result, PrintWriter pw) {
+        pw.println("=== ENERGY DIFF REPORT ===");
+        pw.println("Generated: " + new Date());
+        pw.println();
+        pw.println("CPU Model: " + result.getCpuProfile().getName());
+        pw.printf("Instructions: %d -> %d\n", result.getOldInstructionCount(), result.getNewInstructionCount());
+        pw.printf("Lines Classified: %d\n", result.getClassifiedLines());
+        if (!result.isAlignmentComplete()) {
+            pw.println("Note: the revisions differ too much to align fully; part of the");
+            pw.println("      changes is reported as a single replace hunk");
+        }
+        pw.println();
+        pw.println("HUNKS:");
+        if (result.getHunks().isEmpty()) {
+            pw.println("  No instruction changes.");
+        }
+        for (DiffHunk hunk : result.getHunks()) {
+            pw.println("  " + hunk);
+            for (ParsedInstruction instr : hunk.getRemoved()) {
+                pw.printf("    - %d: [%s] %s\n", instr.getLineNumber(), instr.getCategory(), instr.getRawLine());
+            }
+            for (ParsedInstruction instr : hunk.getAdded()) {
+                pw.printf("    + %d: [%s] %s\n", instr.getLineNumber(), instr.getCategory(), instr.getRawLine());
+            }
+        }
+        pw.println();
+        pw.println("TOTALS:");
+        pw.printf("  Energy: %.2f pJ -> %.2f pJ (%+.2f pJ, %+.2f%%)\n",
+            result.getOldTotalEnergy(), result.getNewTotalEnergy(),
+            result.getEnergyDelta(), result.getEnergyDeltaPercent());
+        pw.printf("  Time: %.2f ns -> %.2f ns (%+.2f ns)\n",
+            result.getOldTotalTime(), result.getNewTotalTime(), result.getTimeDelta());
+    }
+    
+    /**
+     * Saves diff report to file
+     */
+    public void saveReport(EnergyDiffResult result, String filename) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
+            writeReport(result, pw);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,316 @@
+package com.powerestimator.service;
+
+import com.powerestimator.model.CPUProfile;
+import com.powerestimator.model.CoefficientRange;
+import com.powerestimator.model.InstructionCategory;
+import com.powerestimator.model.ParsedInstruction;
+import com.powerestimator.model.SweepReport;
+import com.powerestimator.model.SweepResult;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Service for sweeping CPU profile coefficients and measuring how total energy responds.
+ *
+ * The instruction stream is reduced to per-category counts once, so each profile
+ * variant is evaluated in O(categories) regardless of how long the stream is.
+ */
+public class ParameterSweepService {
+    private static final int CATEGORY_COUNT = InstructionCategory.values().length;
+    private static final int CHUNK_SIZE = 4096;
+    private static final double DEVIATION_TOLERANCE = 1e-9;
+    public static final long MAX_VARIANTS = 50_000_000L;
+    
+    private final PowerCalculationService powerService;
+    
+    public ParameterSweepService() {
+        this(new PowerCalculationService());
+    }
+    
+    public ParameterSweepService(PowerCalculationService powerService) {
+        this.powerService = powerService;
+    }
+    
+    /**
+     * Reduces an instruction stream to instruction counts indexed by category ordinal
+     */
+    public int[] countByCategory(List<ParsedInstruction> instructions) {
+        int[] counts = new int[CATEGORY_COUNT];
+        Map<InstructionCategory, Integer> categoryCount = powerService.countInstructionsByCategory(instructions);
+        for (Map.Entry<InstructionCategory, Integer> entry : categoryCount.entrySet()) {
+            counts[entry.getKey().ordinal()] = entry.getValue();
+        }
+        return counts;
+    }
+    
+    /**
+     * Returns the number of profile variants the given ranges expand to
+     *
+     * @throws IllegalArgumentException if the count does not fit in a long
+     */
+    public long countVariants(List<CoefficientRange> ranges) {
+        long total = 1;
+        for (CoefficientRange range : ranges) {
+            try {
+                total = Math.multiplyExact(total, range.getSteps());
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Sweep expands to more variants than can be counted");
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Evaluates every combination of the given coefficient ranges against the
+     * instruction stream, in parallel, and returns sensitivity tables and the
+     * variants that are Pareto-optimal in (energy, deviation from the base profile).
+     *
+     * Energy and time both grow with every coefficient, so the variant with all
+     * coefficients at their minimum always has the lowest of both. The front instead
+     * shows the cheapest variant for each amount of change to the base profile.
+     */
+    public SweepReport sweep(List<ParsedInstruction> instructions, CPUProfile baseProfile,
+                             List<CoefficientRange> ranges) {
+        if (ranges.isEmpty()) {
+            throw new IllegalArgumentException("At least one coefficient range is required");
+        }
+        long variantCount = countVariants(ranges);
+        if (variantCount > MAX_VARIANTS) {
+            throw new IllegalArgumentException(String.format(
+                "Sweep expands to %d variants (limit is %d)", variantCount, MAX_VARIANTS));
+        }
+        
+        int[] counts = countByCategory(instructions);
+        double[] basePower = new double[CATEGORY_COUNT];
+        double[] baseTime = new double[CATEGORY_COUNT];
+        for (InstructionCategory category : InstructionCategory.values()) {
+            basePower[category.ordinal()] = baseProfile.getPowerForCategory(category);
+            baseTime[category.ordinal()] = baseProfile.getTimeForCategory(category);
+        }
+        
+        // Flatten the ranges into primitive arrays for the inner loop
+        int rangeCount = ranges.size();
+        int[] rangeCategory = new int[rangeCount];
+        boolean[] rangeIsPower = new boolean[rangeCount];
+        double[][] rangeValues = new double[rangeCount][];
+        double[][] rangeChange = new double[rangeCount][]; // squared relative change from the base value
+        for (int r = 0; r < rangeCount; r++) {
+            CoefficientRange range = ranges.get(r);
+            rangeCategory[r] = range.getCategory().ordinal();
+            rangeIsPower[r] = range.getCoefficient() == CoefficientRange.Coefficient.POWER;
+            rangeValues[r] = new double[range.getSteps()];
+            rangeChange[r] = new double[range.getSteps()];
+            double base = range.baseValue(baseProfile);
+            for (int s = 0; s < range.getSteps(); s++) {
+                rangeValues[r][s] = range.valueAt(s);
+                double change = base != 0.0 ? (rangeValues[r][s] - base) / base : rangeValues[r][s];
+                rangeChange[r][s] = change * change;
+            }
+        }
+        
+        double baselineEnergy = energy(counts, basePower, baseTime);
+        double baselineTime = time(counts, baseTime);
+        
+        // One-at-a-time sensitivity: vary a single range, hold the rest at base values
+        double[][] sensitivityEnergy = new double[rangeCount][];
+        double[][] sensitivityTime = new double[rangeCount][];
+        for (int r = 0; r < rangeCount; r++) {
+            int steps = rangeValues[r].length;
+            sensitivityEnergy[r] = new double[steps];
+            sensitivityTime[r] = new double[steps];
+            for (int s = 0; s < steps; s++) {
+                double[] power = basePower.clone();
+                double[] time = baseTime.clone();
+                if (rangeIsPower[r]) {
+                    power[rangeCategory[r]] = rangeValues[r][s];
+                } else {
+                    time[rangeCategory[r]] = rangeValues[r][s];
+                }
+                sensitivityEnergy[r][s] = energy(counts, power, time);
+                sensitivityTime[r][s] = time(counts, time);
+            }
+        }
+        
+        // Full factorial sweep, chunked so each worker keeps only its local Pareto front
+        long chunkCount = (variantCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        DoubleSummaryStatistics energyStats = new DoubleSummaryStatistics();
+        List<SweepResult> candidates = new ArrayList<>();
+        
+        List<ChunkResult> chunkResults = LongStream.range(0, chunkCount)
+                .parallel()
+                .mapToObj(chunk -> evaluateChunk(chunk * CHUNK_SIZE,
+                        Math.min(variantCount, (chunk + 1) * CHUNK_SIZE),
+                        counts, basePower, baseTime, rangeCategory, rangeIsPower, rangeValues, rangeChange))
+                .collect(Collectors.toList());
+        
+        for (ChunkResult chunkResult : chunkResults) {
+            energyStats.combine(chunkResult.energyStats);
+            candidates.addAll(chunkResult.front);
+        }
+        
+        return new SweepReport(baseProfile, ranges, counts, baselineEnergy, baselineTime,
+                sensitivityEnergy, sensitivityTime, variantCount,
+                energyStats.getMin(), energyStats.getMax(), energyStats.getAverage(),
+                paretoFront(candidates));
+    }
+    
+    /**
+     * Evaluates variants [start, end) and keeps only the locally non-dominated ones
+     */
+    private ChunkResult evaluateChunk(long start, long end, int[] counts,
+                                      double[] basePower, double[] baseTime,
+                                      int[] rangeCategory, boolean[] rangeIsPower, double[][] rangeValues,
+                                      double[][] rangeChange) {
+        int rangeCount = rangeCategory.length;
+        double[] power = new double[CATEGORY_COUNT];
+        double[] time = new double[CATEGORY_COUNT];
+        int[] stepIndex = new int[rangeCount];
+        ChunkResult result = new ChunkResult();
+        List<SweepResult> evaluated = new ArrayList<>((int) (end - start));
+        
+        for (long variant = start; variant < end; variant++) {
+            System.arraycopy(basePower, 0, power, 0, CATEGORY_COUNT);
+            System.arraycopy(baseTime, 0, time, 0, CATEGORY_COUNT);
+            
+            // Decode the variant index as a mixed-radix number, one digit per range
+            long remainder = variant;
+            double squaredChange = 0.0;
+            for (int r = rangeCount - 1; r >= 0; r--) {
+                int steps = rangeValues[r].length;
+                stepIndex[r] = (int) (remainder % steps);
+                remainder /= steps;
+                squaredChange += rangeChange[r][stepIndex[r]];
+                double value = rangeValues[r][stepIndex[r]];
+                if (rangeIsPower[r]) {
+                    power[rangeCategory[r]] = value;
+                } else {
+                    time[rangeCategory[r]] = value;
+                }
+            }
+            
+            double totalEnergy = energy(counts, power, time);
+            double totalTime = time(counts, time);
+            result.energyStats.accept(totalEnergy);
+            
+            double[] values = new double[rangeCount];
+            for (int r = 0; r < rangeCount; r++) {
+                values[r] = rangeValues[r][stepIndex[r]];
+            }
+            evaluated.add(new SweepResult(variant, values, totalEnergy, totalTime, Math.sqrt(squaredChange)));
+        }
+        
+        result.front = paretoFront(evaluated);
+        return result;
+    }
+    
+    /**
+     * Returns the results not dominated in (energy, deviation), ordered by ascending energy
+     */
+    private List<SweepResult> paretoFront(List<SweepResult> results) {
+        List<SweepResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble(SweepResult::getTotalEnergy)
+                .thenComparingDouble(SweepResult::getDeviation)
+                .thenComparingLong(SweepResult::getVariantIndex));
+        
+        // Equal deviations summed in a different order can differ in the last bits,
+        // so only a clearly smaller deviation counts as an improvement
+        List<SweepResult> front = new ArrayList<>();
+        double bestDeviation = Double.POSITIVE_INFINITY;
+        for (SweepResult candidate : sorted) {
+            if (candidate.getDeviation() < bestDeviation * (1.0 - DEVIATION_TOLERANCE)) {
+                front.add(candidate);
+                bestDeviation = candidate.getDeviation();
+            }
+        }
+        return front;
+    }
+    
+    private static double energy(int[] counts, double[] power, double[] time) {
+        double total = 0.0;
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            total += counts[c] * power[c] * time[c];
+        }
+        return total;
+    }
+    
+    private static double time(int[] counts, double[] time) {
+        double total = 0.0;
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            total += counts[c] * time[c];
+        }
+        return total;
+    }
+    
+    /**
+     * Saves sweep report to file
+     */
+    public void saveReport(SweepReport report, String filename) throws IOException {
+        List<CoefficientRange> ranges = report.getRanges();
+        
+        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
+            pw.println("=== CPU PROFILE PARAMETER SWEEP REPORT ===");
+            pw.println("Generated: " + new Date());
+            pw.println();
+            pw.println("Base CPU Model: " + report.getBaseProfile().getName());
+            pw.printf("Variants Evaluated: %d\n", report.getVariantCount());
+            pw.println();
+            pw.println("INSTRUCTION BREAKDOWN:");
+            for (InstructionCategory cat : InstructionCategory.values()) {
+                int count = report.getCategoryCount(cat);
+                if (count > 0) {
+                    pw.printf("  %s: %d instructions\n", cat, count);
+                }
+            }
+            pw.println();
+            pw.println("BASELINE:");
+            pw.printf("  Total Time: %.2f ns\n", report.getBaselineTime());
+            pw.printf("  Total Energy: %.2f pJ\n", report.getBaselineEnergy());
+            pw.println();
+            pw.println("ENERGY ACROSS ALL VARIANTS:");
+            pw.printf("  Min: %.2f pJ\n", report.getMinEnergy());
+            pw.printf("  Average: %.2f pJ\n", report.getAverageEnergy());
+            pw.printf("  Max: %.2f pJ\n", report.getMaxEnergy());
+            pw.println();
+            pw.println("SENSITIVITY (one coefficient varied, others at base):");
+            for (int r = 0; r < ranges.size(); r++) {
+                CoefficientRange range = ranges.get(r);
+                pw.printf("  %s %s (elasticity %.3f)\n",
+                    range.getCategory(), range.getCoefficient(), report.getEnergyElasticity(r));
+                for (int s = 0; s < range.getSteps(); s++) {
+                    pw.printf("    %8.3f -> Energy=%.2f pJ, Time=%.2f ns\n",
+                        range.valueAt(s), report.getSensitivityEnergy(r, s), report.getSensitivityTime(r, s));
+                }
+            }
+            pw.println();
+            pw.println("PARETO-OPTIMAL VARIANTS (energy vs deviation from base profile):");
+            for (SweepResult result : report.getParetoFront()) {
+                StringBuilder values = new StringBuilder();
+                for (int r = 0; r < ranges.size(); r++) {
+                    if (r > 0) values.append(", ");
+                    values.append(String.format("%s %s=%.3f", ranges.get(r).getCategory(),
+                        ranges.get(r).getCoefficient(), result.getCoefficientValue(r)));
+                }
+                pw.printf("  #%d: Energy=%.2f pJ, Deviation=%.3f, Time=%.2f ns, Avg Power=%.2f mW - %s\n",
+                    result.getVariantIndex(), result.getTotalEnergy(), result.getDeviation(),
+                    result.getTotalTime(), result.getAveragePower(), values);
+            }
+        }
+    }
+    
+    /**
+     * Per-chunk partial result collected by the parallel sweep
+     */
+    private static class ChunkResult {
+        final DoubleSummaryStatistics energyStats = new DoubleSummaryStatistics();
+        List<SweepResult> front;
+    }
+}
\ No newline at end of file
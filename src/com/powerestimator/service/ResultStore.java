@@ -0,0 +1,484 @@
+package com.powerestimator.service;
+
+import com.powerestimator.model.CPUProfile;
+import com.powerestimator.model.InstructionCategory;
+import com.powerestimator.model.ParsedInstruction;
+import com.powerestimator.model.RunSummary;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary store of analysis summaries across runs.
+ *
+ * File layout: a short header, then length-prefixed, CRC-checked records. Paths,
+ * profile names and run ids are written once as STRING records and referenced by
+ * number afterwards, so each summary takes only a few dozen bytes. On open the file
+ * is scanned once to rebuild the dictionary and the latest summary of each file per
+ * profile. Runs and trends are read back from the file when queried, so memory grows
+ * with the number of distinct files, not with the number of stored summaries.
+ *
+ * Several processes may append to the same store. Appends hold an exclusive file
+ * lock and first read any records other processes added since the last scan, so
+ * string numbers always follow the file's own dictionary. A record that runs past
+ * the end of the file (a torn append, e.g. after a crash) is cut off; any other
+ * damage is reported as an IOException and the file is left as it is. Read-only
+ * stores take a shared lock while scanning and never modify the file.
+ */
+public class ResultStore implements Closeable {
+    private static final int MAGIC = 0x50455253; // "PERS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+    private static final byte RECORD_STRING = 1;
+    private static final byte RECORD_SUMMARY = 2;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final InstructionCategory[] CATEGORIES = InstructionCategory.values();
+    
+    private final File file;
+    private final PowerCalculationService powerService;
+    private final boolean readOnly;
+    private final FileChannel channel;
+    private long scannedEnd; // end of the last record read or written by this instance
+    
+    // String dictionary
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    
+    // Latest summary per file path and profile, and the names seen so far
+    private final Map<String, Map<String, RunSummary>> latest = new HashMap<>();
+    private final Set<String> runIds = new LinkedHashSet<>();
+    private final Set<String> profileNames = new LinkedHashSet<>();
+    private int summaryCount;
+    
+    public ResultStore(String filename) throws IOException {
+        this(filename, new PowerCalculationService(), false);
+    }
+    
+    public ResultStore(String filename, PowerCalculationService powerService) throws IOException {
+        this(filename, powerService, false);
+    }
+    
+    /**
+     * Opens a store for queries only; the file must exist and is never written
+     */
+    public ResultStore(String filename, boolean readOnly) throws IOException {
+        this(filename, new PowerCalculationService(), readOnly);
+    }
+    
+    public ResultStore(String filename, PowerCalculationService powerService, boolean readOnly) throws IOException {
+        this.file = new File(filename);
+        this.powerService = powerService;
+        this.readOnly = readOnly;
+        if (readOnly) {
+            if (!file.isFile()) {
+                throw new FileNotFoundException("No result store at " + file);
+            }
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } else {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        }
+        try {
+            FileLock lock = channel.lock(0, Long.MAX_VALUE, readOnly);
+            try {
+                if (!readOnly && channel.size() == 0) {
+                    writeHeader();
+                }
+                scan();
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Summarizes analyzed instructions (with power already calculated) and appends them
+     */
+    public synchronized RunSummary append(String runId, String filePath, CPUProfile cpuProfile,
+                                          List<ParsedInstruction> instructions) throws IOException {
+        int[] counts = new int[CATEGORIES.length];
+        double[] energy = new double[CATEGORIES.length];
+        for (ParsedInstruction instruction : instructions) {
+            int c = instruction.getCategory().ordinal();
+            counts[c]++;
+            energy[c] += instruction.getPower() * instruction.getExecutionTime();
+        }
+        RunSummary summary = new RunSummary(runId, System.currentTimeMillis(), filePath, cpuProfile.getName(),
+                instructions.size(), powerService.calculateTotalEnergy(instructions),
+                powerService.calculateTotalTime(instructions), powerService.calculateTotalPower(instructions),
+                counts, energy);
+        append(Collections.singletonList(summary));
+        return summary;
+    }
+    
+    /**
+     * Appends summaries to the store in one write
+     */
+    public synchronized void append(List<RunSummary> batch) throws IOException {
+        if (readOnly) {
+            throw new IOException("Result store was opened read-only: " + file);
+        }
+        FileLock lock = channel.lock();
+        try {
+            // Pick up records from other processes so new strings get the next free numbers
+            scan();
+            
+            List<String> newStrings = new ArrayList<>();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            for (RunSummary summary : batch) {
+                encodeSummary(summary, buffer, newStrings);
+            }
+            
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            long position = scannedEnd;
+            while (bytes.hasRemaining()) {
+                position += channel.write(bytes, position);
+            }
+            
+            // Only now that the records are in the file do they become visible here
+            for (String value : newStrings) {
+                addString(value);
+            }
+            for (RunSummary summary : batch) {
+                index(summary);
+            }
+            scannedEnd = position;
+        } finally {
+            lock.release();
+        }
+    }
+    
+    private void encodeSummary(RunSummary summary, ByteArrayOutputStream buffer, List<String> newStrings)
+            throws IOException {
+        int runRef = stringRef(summary.getRunId(), buffer, newStrings);
+        int pathRef = stringRef(summary.getFilePath(), buffer, newStrings);
+        int profileRef = stringRef(summary.getProfileName(), buffer, newStrings);
+        
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeByte(RECORD_SUMMARY);
+        writeVarLong(data, runRef);
+        writeVarLong(data, summary.getTimestamp());
+        writeVarLong(data, pathRef);
+        writeVarLong(data, profileRef);
+        writeVarLong(data, summary.getInstructionCount());
+        data.writeDouble(summary.getTotalEnergy());
+        data.writeDouble(summary.getTotalTime());
+        data.writeDouble(summary.getTotalPower());
+        for (InstructionCategory category : CATEGORIES) {
+            writeVarLong(data, summary.getCategoryCount(category));
+            data.writeDouble(summary.getCategoryEnergy(category));
+        }
+        writeRecord(buffer, payload.toByteArray());
+    }
+    
+    /**
+     * Returns all summaries recorded for a run, in store order
+     */
+    public synchronized List<RunSummary> getRun(String runId) throws IOException {
+        List<RunSummary> result = new ArrayList<>();
+        if (runIds.contains(runId)) {
+            readSummaries(summary -> {
+                if (summary.getRunId().equals(runId)) result.add(summary);
+            });
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the history of one file, oldest first, optionally for a single profile
+     */
+    public synchronized List<RunSummary> trend(String filePath, String profileName) throws IOException {
+        List<RunSummary> result = new ArrayList<>();
+        if (latest.containsKey(filePath)) {
+            readSummaries(summary -> {
+                if (summary.getFilePath().equals(filePath)
+                        && (profileName == null || profileName.equals(summary.getProfileName()))) {
+                    result.add(summary);
+                }
+            });
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the most energy-hungry files, highest first. If runId is null the latest
+     * summary of each file is used; profileName may be null for all profiles. Each file
+     * appears once, with the profile on which it used the most energy.
+     */
+    public synchronized List<RunSummary> topByEnergy(int limit, String profileName, String runId) throws IOException {
+        Map<String, RunSummary> byFile = new HashMap<>();
+        if (runId != null) {
+            if (runIds.contains(runId)) {
+                readSummaries(summary -> {
+                    if (summary.getRunId().equals(runId)) keepHighest(byFile, summary, profileName);
+                });
+            }
+        } else {
+            for (Map<String, RunSummary> byProfile : latest.values()) {
+                for (RunSummary summary : byProfile.values()) {
+                    keepHighest(byFile, summary, profileName);
+                }
+            }
+        }
+        
+        // Bounded min-heap keeps only the current top entries
+        Comparator<RunSummary> byEnergy = Comparator.comparingDouble(RunSummary::getTotalEnergy);
+        PriorityQueue<RunSummary> top = new PriorityQueue<>(Math.max(1, limit), byEnergy);
+        for (RunSummary candidate : byFile.values()) {
+            if (top.size() < limit) {
+                top.add(candidate);
+            } else if (limit > 0 && candidate.getTotalEnergy() > top.peek().getTotalEnergy()) {
+                top.poll();
+                top.add(candidate);
+            }
+        }
+        List<RunSummary> result = new ArrayList<>(top);
+        result.sort(byEnergy.reversed());
+        return result;
+    }
+    
+    /**
+     * Run ids in the order they were first recorded
+     */
+    public synchronized List<String> getRunIds() {
+        return new ArrayList<>(runIds);
+    }
+    
+    /**
+     * Profile names that have at least one summary
+     */
+    public synchronized List<String> getProfileNames() {
+        return new ArrayList<>(profileNames);
+    }
+    
+    public synchronized int size() {
+        return summaryCount;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+    
+    private static void keepHighest(Map<String, RunSummary> byFile, RunSummary summary, String profileName) {
+        if (profileName != null && !profileName.equals(summary.getProfileName())) return;
+        byFile.merge(summary.getFilePath(), summary,
+                (kept, candidate) -> candidate.getTotalEnergy() > kept.getTotalEnergy() ? candidate : kept);
+    }
+    
+    private void index(RunSummary summary) {
+        summaryCount++;
+        latest.computeIfAbsent(summary.getFilePath(), k -> new HashMap<>()).put(summary.getProfileName(), summary);
+        runIds.add(summary.getRunId());
+        profileNames.add(summary.getProfileName());
+    }
+    
+    /**
+     * Returns the dictionary id of a string. A new string gets a STRING record in the
+     * buffer and is collected in newStrings until the buffer has been written.
+     */
+    private int stringRef(String value, ByteArrayOutputStream buffer, List<String> newStrings) throws IOException {
+        Integer id = stringIds.get(value);
+        if (id != null) return id;
+        int pending = newStrings.indexOf(value);
+        if (pending >= 0) return strings.size() + pending;
+        
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeByte(RECORD_STRING);
+        data.writeUTF(value);
+        writeRecord(buffer, payload.toByteArray());
+        
+        newStrings.add(value);
+        return strings.size() + newStrings.size() - 1;
+    }
+    
+    private void addString(String value) {
+        stringIds.put(value, strings.size());
+        strings.add(value);
+    }
+    
+    private void writeRecord(ByteArrayOutputStream buffer, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        DataOutputStream data = new DataOutputStream(buffer);
+        data.writeInt(payload.length);
+        data.write(payload);
+        data.writeInt((int) crc.getValue());
+    }
+    
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).put((byte) VERSION).put((byte) CATEGORIES.length).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+    
+    /**
+     * Reads the records added since the last scan (the whole file on open) into the
+     * indexes. Must be called while holding the file lock.
+     */
+    private void scan() throws IOException {
+        long size = channel.size();
+        if (scannedEnd >= size) return;
+        
+        // The stream is not closed here, since that would close the channel
+        channel.position(scannedEnd);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        long validEnd = scannedEnd;
+        if (validEnd == 0) {
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a result store: " + file);
+                }
+                int version = in.readUnsignedByte();
+                int categoryCount = in.readUnsignedByte();
+                if (version != VERSION || categoryCount != CATEGORIES.length) {
+                    throw new IOException("Unsupported result store format in " + file);
+                }
+            } catch (EOFException e) {
+                throw new IOException("Not a result store: " + file);
+            }
+            validEnd = HEADER_SIZE;
+        }
+        
+        while (validEnd < size) {
+            byte[] payload = readPayload(in, validEnd, size);
+            if (payload == null) break;
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+            byte type = data.readByte();
+            if (type == RECORD_STRING) {
+                addString(data.readUTF());
+            } else if (type == RECORD_SUMMARY) {
+                index(readSummary(data));
+            } else {
+                throw new IOException("Unknown record type " + type + " in " + file);
+            }
+            validEnd += 8 + payload.length;
+        }
+        scannedEnd = validEnd;
+        
+        // Drop a torn tail so new records follow the last good one
+        if (!readOnly && validEnd < size) {
+            channel.truncate(validEnd);
+        }
+    }
+    
+    /**
+     * Reads all summaries up to the last scanned record, in store order
+     */
+    private void readSummaries(Consumer<RunSummary> consumer) throws IOException {
+        channel.position(HEADER_SIZE);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        long position = HEADER_SIZE;
+        while (position < scannedEnd) {
+            byte[] payload = readPayload(in, position, scannedEnd);
+            if (payload == null) {
+                throw new IOException("Result store was truncated: " + file);
+            }
+            if (payload[0] == RECORD_SUMMARY) {
+                consumer.accept(readSummary(new DataInputStream(
+                        new ByteArrayInputStream(payload, 1, payload.length - 1))));
+            }
+            position += 8 + payload.length;
+        }
+    }
+    
+    /**
+     * Reads and checks the record at position. Returns null if the record runs past end,
+     * which is what an interrupted append leaves behind; any other damage is an error.
+     */
+    private byte[] readPayload(DataInputStream in, long position, long end) throws IOException {
+        if (end - position < 4) return null;
+        int length = in.readInt();
+        if (length <= 0 || length > MAX_RECORD_SIZE) {
+            throw new IOException("Corrupt record length at offset " + position + " in " + file);
+        }
+        if (position + 8 + length > end) return null;
+        
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        int storedCrc = in.readInt();
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, length);
+        if ((int) crc.getValue() != storedCrc) {
+            throw new IOException("Checksum mismatch at offset " + position + " in " + file);
+        }
+        return payload;
+    }
+    
+    private RunSummary readSummary(DataInput data) throws IOException {
+        String runId = readString(data);
+        long timestamp = readVarLong(data);
+        String filePath = readString(data);
+        String profileName = readString(data);
+        int instructionCount = (int) readVarLong(data);
+        double totalEnergy = data.readDouble();
+        double totalTime = data.readDouble();
+        double totalPower = data.readDouble();
+        int[] counts = new int[CATEGORIES.length];
+        double[] energy = new double[CATEGORIES.length];
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            counts[c] = (int) readVarLong(data);
+            energy[c] = data.readDouble();
+        }
+        return new RunSummary(runId, timestamp, filePath, profileName, instructionCount,
+                totalEnergy, totalTime, totalPower, counts, energy);
+    }
+    
+    private String readString(DataInput data) throws IOException {
+        long id = readVarLong(data);
+        if (id < 0 || id >= strings.size()) {
+            throw new IOException("Unknown string reference " + id + " in " + file);
+        }
+        return strings.get((int) id);
+    }
+    
+    private static void writeVarLong(DataOutput data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        data.writeByte((int) value);
+    }
+    
+    private long readVarLong(DataInput data) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint in " + file);
+    }
+}
\ No newline at end of file
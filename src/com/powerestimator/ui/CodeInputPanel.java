@@ -1,13 +1,21 @@
 package com.powerestimator.ui;
 
+import com.powerestimator.model.ParsedInstruction;
+
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Panel for code input with proper styling
  */
 public class CodeInputPanel extends JPanel {
     private final JTextArea codeArea;
+    private final EnergyHeatmapHighlighter heatmapHighlighter;
+    private final List<Runnable> codeEditListeners = new ArrayList<>();
     
     public CodeInputPanel() {
         setLayout(new BorderLayout());
@@ -25,6 +33,20 @@ public class CodeInputPanel extends JPanel {
                         "    }\n" +
                         "}");
         
+        // Energy heatmap painted behind the text
+        heatmapHighlighter = new EnergyHeatmapHighlighter();
+        codeArea.setHighlighter(heatmapHighlighter);
+        
+        // Line energies no longer match once the code is edited
+        codeArea.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { codeEdited(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { codeEdited(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { }
+        });
+        
         // Add scroll pane
         JScrollPane scrollPane = new JScrollPane(codeArea);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
@@ -44,4 +66,41 @@ public class CodeInputPanel extends JPanel {
     public void clearCode() {
         codeArea.setText("");
     }
+    
+    /**
+     * Registers a callback run whenever the code text changes
+     */
+    public void addCodeEditListener(Runnable listener) {
+        codeEditListeners.add(listener);
+    }
+    
+    private void codeEdited() {
+        heatmapHighlighter.clearLineData();
+        for (Runnable listener : codeEditListeners) {
+            listener.run();
+        }
+    }
+    
+    /**
+     * Colors each source line by the energy of its instruction (power must be calculated)
+     */
+    public void showEnergyHeatmap(List<ParsedInstruction> instructions) {
+        int lineCount = codeArea.getLineCount();
+        double[] lineEnergy = new double[lineCount];
+        double[] linePower = new double[lineCount];
+        
+        for (ParsedInstruction instr : instructions) {
+            int line = instr.getLineNumber() - 1;
+            if (line >= 0 && line < lineCount) {
+                lineEnergy[line] = instr.getPower() * instr.getExecutionTime();
+                linePower[line] = instr.getPower();
+            }
+        }
+        
+        heatmapHighlighter.setLineData(lineEnergy, linePower);
+    }
+    
+    public void clearEnergyHeatmap() {
+        heatmapHighlighter.clearLineData();
+    }
 }
\ No newline at end of file
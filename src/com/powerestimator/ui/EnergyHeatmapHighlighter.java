@@ -0,0 +1,111 @@
+package com.powerestimator.ui;
+
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.JTextComponent;
+import java.awt.*;
+
+/**
+ * Highlighter that shades each line of a text area by its estimated energy.
+ *
+ * Hue follows the power thresholds of PowerColorScale, intensity follows the line's
+ * energy relative to the most expensive line. Shades are precomputed into a small
+ * palette when the data is set, and paint() only touches the lines inside the clip,
+ * so scrolling cost does not depend on the size of the file. Assumes the text area
+ * does not wrap lines.
+ */
+public class EnergyHeatmapHighlighter extends DefaultHighlighter {
+    private static final int SHADES = 8;
+    private static final int MIN_ALPHA = 30;
+    private static final int MAX_ALPHA = 150;
+    
+    // palette[level * SHADES + shade]; index 0 in lineShade means "no instruction"
+    private static final Color[] PALETTE = createPalette();
+    
+    private JTextComponent component;
+    private byte[] lineShade = new byte[0];
+    
+    @Override
+    public void install(JTextComponent c) {
+        super.install(c);
+        component = c;
+    }
+    
+    @Override
+    public void deinstall(JTextComponent c) {
+        super.deinstall(c);
+        component = null;
+    }
+    
+    /**
+     * Sets per-line energy (pJ) and power (mW), indexed by 0-based line; lines
+     * without an instruction should have zero energy
+     */
+    public void setLineData(double[] lineEnergy, double[] linePower) {
+        double maxEnergy = 0.0;
+        for (double energy : lineEnergy) {
+            maxEnergy = Math.max(maxEnergy, energy);
+        }
+        
+        byte[] shades = new byte[lineEnergy.length];
+        if (maxEnergy > 0.0) {
+            for (int i = 0; i < lineEnergy.length; i++) {
+                if (lineEnergy[i] <= 0.0) continue;
+                int level = PowerColorScale.getPowerLevel(linePower[i]);
+                int shade = (int) Math.min(SHADES - 1, lineEnergy[i] / maxEnergy * SHADES);
+                shades[i] = (byte) (1 + level * SHADES + shade);
+            }
+        }
+        lineShade = shades;
+        repaintComponent();
+    }
+    
+    public void clearLineData() {
+        if (lineShade.length == 0) return;
+        lineShade = new byte[0];
+        repaintComponent();
+    }
+    
+    @Override
+    public void paint(Graphics g) {
+        byte[] shades = lineShade;
+        if (component != null && shades.length > 0) {
+            Rectangle clip = g.getClipBounds();
+            Insets insets = component.getInsets();
+            int rowHeight = component.getFontMetrics(component.getFont()).getHeight();
+            if (clip != null && rowHeight > 0) {
+                int first = Math.max(0, (clip.y - insets.top) / rowHeight);
+                int last = Math.min(shades.length - 1, (clip.y + clip.height - insets.top) / rowHeight);
+                for (int line = first; line <= last; line++) {
+                    int index = shades[line] & 0xFF;
+                    if (index == 0) continue;
+                    g.setColor(PALETTE[index - 1]);
+                    g.fillRect(clip.x, insets.top + line * rowHeight, clip.width, rowHeight);
+                }
+            }
+        }
+        super.paint(g);
+    }
+    
+    private void repaintComponent() {
+        if (component != null) {
+            component.repaint();
+        }
+    }
+    
+    private static Color[] createPalette() {
+        Color[] base = {
+            PowerColorScale.LOW_POWER_COLOR,
+            PowerColorScale.MEDIUM_POWER_COLOR,
+            PowerColorScale.HIGH_POWER_COLOR
+        };
+        Color[] palette = new Color[base.length * SHADES];
+        for (int level = 0; level < base.length; level++) {
+            for (int shade = 0; shade < SHADES; shade++) {
+                int alpha = MIN_ALPHA + (MAX_ALPHA - MIN_ALPHA) * shade / (SHADES - 1);
+                Color color = base[level];
+                palette[level * SHADES + shade] = new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+            }
+        }
+        return palette;
+    }
+}
\ No newline at end of file
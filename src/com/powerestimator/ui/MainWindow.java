@@ -1,8 +1,11 @@
 package com.powerestimator.ui;
 
+import com.powerestimator.StartupTimer;
 import com.powerestimator.model.CPUProfile;
 import com.powerestimator.model.ParsedInstruction;
+import com.powerestimator.model.SimulationResult;
 import com.powerestimator.service.CodeAnalysisService;
+import com.powerestimator.service.DynamicPowerSimulator;
 import com.powerestimator.service.PowerCalculationService;
 
 import javax.swing.*;
@@ -19,12 +22,16 @@ public class MainWindow extends JFrame {
     private CodeInputPanel codeInputPanel;
     private JTextArea outputArea;
     private JComboBox<CPUProfile> cpuComboBox;
+    private JCheckBox dynamicModelCheckBox;
     private JButton analyzeButton, animateButton, clearButton;
-    private PowerChartPanel chartPanel;
+    private PowerChartPanel chartPanel; // created on first animation, loads JFreeChart
     
     private CodeAnalysisService analysisService;
     private PowerCalculationService powerService;
+    private DynamicPowerSimulator dynamicSimulator;
+    private SimulationResult simulationResult;
     private List<ParsedInstruction> currentInstructions;
+    private boolean codeEditedSinceAnalysis; // line numbers in currentInstructions are stale
     private Timer animationTimer;
     private int currentAnimationStep;
     
@@ -32,6 +39,7 @@ public class MainWindow extends JFrame {
         // Initialize services
         analysisService = new CodeAnalysisService();
         powerService = new PowerCalculationService();
+        dynamicSimulator = new DynamicPowerSimulator();
         
         setupWindow();
         setupComponents();
@@ -62,6 +70,8 @@ public class MainWindow extends JFrame {
             CPUProfile.createLowPowerProfile()
         };
         cpuComboBox = new JComboBox<>(profiles);
+        dynamicModelCheckBox = new JCheckBox("Dynamic Model");
+        dynamicModelCheckBox.setToolTipText("Simulate pipeline, cache misses, branch mispredictions and DVFS");
         
         // Buttons
         analyzeButton = new JButton("Analyze Code");
@@ -69,9 +79,6 @@ public class MainWindow extends JFrame {
         clearButton = new JButton("Clear All");
         
         animateButton.setEnabled(false);
-        
-        // Chart panel
-        chartPanel = new PowerChartPanel();
     }
     
     private void setupLayout() {
@@ -83,6 +90,7 @@ public class MainWindow extends JFrame {
         
         controlPanel.add(new JLabel("CPU Model:"));
         controlPanel.add(cpuComboBox);
+        controlPanel.add(dynamicModelCheckBox);
         controlPanel.add(analyzeButton);
         controlPanel.add(animateButton);
         controlPanel.add(clearButton);
@@ -101,11 +109,15 @@ public class MainWindow extends JFrame {
         analyzeButton.addActionListener(e -> analyzeCode());
         animateButton.addActionListener(e -> startAnimation());
         clearButton.addActionListener(e -> clearAll());
+        cpuComboBox.addActionListener(e -> updateHeatmap());
+        dynamicModelCheckBox.addActionListener(e -> updateHeatmap());
+        codeInputPanel.addCodeEditListener(() -> codeEditedSinceAnalysis = true);
     }
     
     private void analyzeCode() {
         String code = codeInputPanel.getCodeText();
         currentInstructions = analysisService.analyzeCode(code);
+        codeEditedSinceAnalysis = false;
         
         outputArea.setText("=== ANALYZING YOUR CODE ===\n\n");
         
@@ -128,6 +140,60 @@ public class MainWindow extends JFrame {
         outputArea.append("Click 'Start Animation' to see power usage.\n");
         
         animateButton.setEnabled(true);
+        updateHeatmap();
+        StartupTimer.markFirstResult();
+    }
+    
+    /**
+     * Returns the chart panel, creating it (and loading JFreeChart) on first use
+     */
+    private PowerChartPanel getChartPanel() {
+        if (chartPanel == null) {
+            chartPanel = new PowerChartPanel();
+        }
+        return chartPanel;
+    }
+    
+    /**
+     * Runs analysis and opens and closes a chart without user interaction, so a
+     * class-data-sharing training run loads the same classes as a real session
+     */
+    public void warmUp(String code) {
+        codeInputPanel.setCodeText(code);
+        analyzeCode();
+        
+        CPUProfile selectedProfile = (CPUProfile) cpuComboBox.getSelectedItem();
+        dynamicSimulator.simulate(currentInstructions, selectedProfile);
+        getChartPanel().createChart(selectedProfile.getName());
+        for (int i = 0; i < currentInstructions.size(); i++) {
+            chartPanel.addDataPoint(i + 1, currentInstructions.get(i).getPower());
+        }
+        chartPanel.closeChart();
+    }
+    
+    /**
+     * Recolors the code heatmap for the selected CPU profile and power model. Does
+     * nothing once the code has been edited, until it is analyzed again.
+     */
+    private void updateHeatmap() {
+        if (currentInstructions == null || currentInstructions.isEmpty()) return;
+        if (animationTimer != null && animationTimer.isRunning()) return;
+        if (codeEditedSinceAnalysis) return;
+        
+        calculatePower((CPUProfile) cpuComboBox.getSelectedItem());
+        codeInputPanel.showEnergyHeatmap(currentInstructions);
+    }
+    
+    /**
+     * Calculates power for the current instructions with the selected power model
+     */
+    private void calculatePower(CPUProfile selectedProfile) {
+        if (dynamicModelCheckBox.isSelected()) {
+            simulationResult = dynamicSimulator.simulate(currentInstructions, selectedProfile);
+        } else {
+            simulationResult = null;
+            powerService.calculatePowerForInstructions(currentInstructions, selectedProfile);
+        }
     }
     
     private void startAnimation() {
@@ -140,20 +206,26 @@ public class MainWindow extends JFrame {
         CPUProfile selectedProfile = (CPUProfile) cpuComboBox.getSelectedItem();
         
         // Calculate power for all instructions
-        powerService.calculatePowerForInstructions(currentInstructions, selectedProfile);
+        calculatePower(selectedProfile);
+        
+        if (!codeEditedSinceAnalysis) {
+            codeInputPanel.showEnergyHeatmap(currentInstructions);
+        }
         
         // Setup animation
         currentAnimationStep = 0;
-        chartPanel.createChart(selectedProfile.getName());
+        getChartPanel().createChart(selectedProfile.getName());
         
         outputArea.append("\n=== STARTING ANIMATED SIMULATION ===\n");
         outputArea.append(String.format("CPU Model: %s\n", selectedProfile.getName()));
+        outputArea.append(String.format("Power Model: %s\n", simulationResult != null ? "Dynamic" : "Static"));
         outputArea.append(String.format("Total Instructions: %d\n\n", currentInstructions.size()));
         
         // Disable controls during animation
         analyzeButton.setEnabled(false);
         animateButton.setEnabled(false);
         cpuComboBox.setEnabled(false);
+        dynamicModelCheckBox.setEnabled(false);
         
         // Start animation timer (500ms per step)
         animationTimer = new Timer(500, new AnimationHandler());
@@ -199,6 +271,15 @@ public class MainWindow extends JFrame {
         outputArea.append(String.format("Total Time: %.2f ns\n", totalTime));
         outputArea.append(String.format("Total Energy: %.2f pJ\n\n", totalEnergy));
         
+        if (simulationResult != null) {
+            outputArea.append(String.format("Stall Time: %.2f ns\n", simulationResult.getStallTime()));
+            outputArea.append(String.format("Cache Hits/Misses: %d/%d\n",
+                simulationResult.getCacheHits(), simulationResult.getCacheMisses()));
+            outputArea.append(String.format("Branch Mispredictions: %d\n", simulationResult.getBranchMispredicts()));
+            outputArea.append(String.format("Load-Use Stalls: %d\n", simulationResult.getLoadUseStalls()));
+            outputArea.append(String.format("DVFS Transitions: %d\n\n", simulationResult.getDvfsTransitions()));
+        }
+        
         // Save report
         try {
             powerService.saveReport(currentInstructions, selectedProfile, "PowerAnalysisReport.txt");
@@ -216,22 +297,27 @@ public class MainWindow extends JFrame {
         analyzeButton.setEnabled(true);
         animateButton.setEnabled(true);
         cpuComboBox.setEnabled(true);
+        dynamicModelCheckBox.setEnabled(true);
     }
     
     private void clearAll() {
         codeInputPanel.clearCode();
         outputArea.setText("");
         currentInstructions = null;
+        simulationResult = null;
         animateButton.setEnabled(false);
         
         if (animationTimer != null && animationTimer.isRunning()) {
             animationTimer.stop();
         }
         
-        chartPanel.closeChart();
+        if (chartPanel != null) {
+            chartPanel.closeChart();
+        }
         
         // Re-enable controls
         analyzeButton.setEnabled(true);
         cpuComboBox.setEnabled(true);
+        dynamicModelCheckBox.setEnabled(true);
     }
 }
\ No newline at end of file
@@ -81,13 +81,7 @@ public class PowerChartPanel extends JPanel {
     }
     
     private Color getPowerColor(double power) {
-        if (power <= 3.0) {
-            return new Color(34, 139, 34); // Green - Low power
-        } else if (power <= 5.0) {
-            return new Color(255, 215, 0); // Yellow - Medium power
-        } else {
-            return new Color(220, 20, 60); // Red - High power
-        }
+        return PowerColorScale.getPowerColor(power);
     }
     
     public void closeChart() {
@@ -0,0 +1,39 @@
+package com.powerestimator.ui;
+
+import java.awt.Color;
+
+/**
+ * Green/yellow/red power levels shared by the charts and the editor heatmap
+ */
+public final class PowerColorScale {
+    public static final double LOW_POWER_THRESHOLD = 3.0;     // mW
+    public static final double MEDIUM_POWER_THRESHOLD = 5.0;  // mW
+    
+    public static final Color LOW_POWER_COLOR = new Color(34, 139, 34);      // Green
+    public static final Color MEDIUM_POWER_COLOR = new Color(255, 215, 0);   // Yellow
+    public static final Color HIGH_POWER_COLOR = new Color(220, 20, 60);     // Red
+    
+    private PowerColorScale() {
+    }
+    
+    /**
+     * Returns the power level: 0 = low, 1 = medium, 2 = high
+     */
+    public static int getPowerLevel(double power) {
+        if (power <= LOW_POWER_THRESHOLD) {
+            return 0;
+        } else if (power <= MEDIUM_POWER_THRESHOLD) {
+            return 1;
+        } else {
+            return 2;
+        }
+    }
+    
+    public static Color getPowerColor(double power) {
+        switch (getPowerLevel(power)) {
+            case 0: return LOW_POWER_COLOR;
+            case 1: return MEDIUM_POWER_COLOR;
+            default: return HIGH_POWER_COLOR;
+        }
+    }
+}
\ No newline at end of file